@@ -20,15 +20,13 @@ package org.apache.bval.bench;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 import java.util.Random;
 
 
-// TODO
-// % of ref beans that reference already existing beans (circular deps)
-
-
 /**
  * Stores the generator configuration parameters and provides an easy way of
  * accessing those parameters and the random values they can generate.
@@ -40,19 +38,33 @@ public enum Config {
     CFG();
 
     private static final String DEFAULT_PROPERTIES_RES = "generator.default.properties";
+    private static final String MODULE_PROPERTIES_RES = "generator.module.properties";
     private static final String USER_PROPERTIES_RES = "generator.properties";
 
-    private final Random r;
-    private final Properties p;
-    private int uniqueSeq = 0;
+    // The configuration of the default population
+    private final Properties defaultProperties;
+
+    // The random stream of the default population
+    private final RandomStream defaultStream;
+
+    // The configuration of the population being generated
+    private volatile Properties p;
+
+    // The random stream used outside of any shard
+    private volatile RandomStream mainStream;
+
+    // The random stream of the shard being generated by the current thread
+    private final ThreadLocal<RandomStream> shardStream = new ThreadLocal<RandomStream>();
 
     private Config() {
 
         // Read the config
-        p = readConfigProperties();
+        defaultProperties = readConfigProperties();
+        p = defaultProperties;
 
         // Init random generator
-        r = new Random(new Long(p.getProperty("generator.rnd.seed")));
+        defaultStream = new RandomStream(getSeed());
+        mainStream = defaultStream;
         
         // Extra info: print the properties which will be in use
         printProperties();
@@ -62,7 +74,84 @@ public enum Config {
      * @return A unique sequence number.
      */
     public int nextUniqueNum() {
-        return uniqueSeq++;
+        return stream().uniqueSeq++;
+    }
+
+    /**
+     * Binds a new random stream to the current thread, so that all the random
+     * values and sequence numbers it gets until {@link #exitShard()} is called
+     * only depend on the base seed and the shard index (and not on the work
+     * done by other threads).
+     * 
+     * @param shard
+     *            The index of the shard that the current thread will generate.
+     */
+    public void enterShard(int shard) {
+        shardStream.set(new RandomStream(getSeed() ^ (shard * 0x9E3779B97F4A7C15L)));
+    }
+
+    /**
+     * Unbinds the random stream set by {@link #enterShard(int)} from the
+     * current thread.
+     */
+    public void exitShard() {
+        shardStream.remove();
+    }
+
+    /**
+     * @return The names of the populations generated after the default one.
+     */
+    public List<String> getPopulationNames() {
+        List<String> names = new ArrayList<String>();
+        for (String name : p.getProperty("generator.populations").split(",")) {
+            if (!name.trim().isEmpty()) {
+                names.add(name.trim());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Switches the configuration to the one of a population until
+     * {@link #exitPopulation()} is called. The population is generated in the
+     * package <code>generator.pkg.base</code> followed by its name, every
+     * <code>generator.population.&lt;name&gt;.&lt;key&gt;</code> property
+     * overriding the <code>generator.&lt;key&gt;</code> one, and gets a random
+     * stream of its own starting from the base seed.
+     * 
+     * @param name
+     *            The name of the population, one of
+     *            {@link #getPopulationNames()}.
+     */
+    public void enterPopulation(String name) {
+        String basePackageName = defaultProperties.getProperty("generator.pkg.base") + "." + name;
+        Properties populationProperties = new Properties(defaultProperties);
+        populationProperties.setProperty("generator.pkg.base", basePackageName);
+        populationProperties.setProperty("generator.pkg.beans", basePackageName + ".beans");
+        populationProperties.setProperty("generator.pkg.groups", basePackageName + ".groups");
+
+        String prefix = "generator.population." + name + ".";
+        for (String key : defaultProperties.stringPropertyNames()) {
+            if (key.startsWith(prefix)) {
+                String overridden = "generator." + key.substring(prefix.length());
+                if (defaultProperties.getProperty(overridden) == null) {
+                    throw new RuntimeException("Unknown property " + overridden + " overridden by " + key);
+                }
+                populationProperties.setProperty(overridden, defaultProperties.getProperty(key));
+                System.out.println(overridden + "=" + defaultProperties.getProperty(key));
+            }
+        }
+
+        p = populationProperties;
+        mainStream = new RandomStream(getSeed());
+    }
+
+    /**
+     * Switches the configuration back to the one of the default population.
+     */
+    public void exitPopulation() {
+        p = defaultProperties;
+        mainStream = defaultStream;
     }
 
     /**
@@ -116,6 +205,32 @@ public enum Config {
         return new Integer(p.getProperty("generator.numbasebeans"));
     }
 
+    /**
+     * @return The number of shards (independent packages) in which the beans
+     *         are split. A single shard keeps all the beans in
+     *         {@link #getBeansPackageName()}.
+     */
+    public int getNumShards() {
+        return new Integer(p.getProperty("generator.shards"));
+    }
+
+    /**
+     * @return The number of threads used to generate the shards, defaults to
+     *         the number of available processors when not strictly positive.
+     */
+    public int getNumGeneratorThreads() {
+        int threads = new Integer(p.getProperty("generator.threads"));
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return The maximum number of beans referenced by a single generated
+     *         method of the holder class.
+     */
+    public int getHolderChunkSize() {
+        return new Integer(p.getProperty("generator.holder.chunksize"));
+    }
+
     /**
      * @param <T>
      *            The type of elements of the list.
@@ -124,7 +239,30 @@ public enum Config {
      * @return A random element from the list of elements.
      */
     public <T> T getRandom(List<T> elements) {
-        return elements.get(r.nextInt(elements.size()));
+        return elements.get(stream().r.nextInt(elements.size()));
+    }
+
+    /**
+     * @param key
+     *            The name of a property, usually specific to a generator
+     *            module.
+     * @return The value of the property, or <code>null</code>.
+     */
+    public String getProperty(String key) {
+        return p.getProperty(key);
+    }
+
+    /**
+     * @param minKey
+     *            The property holding the minimum value.
+     * @param maxKey
+     *            The property holding the maximum value.
+     * @return A random value between both values, both included.
+     */
+    public int rndBetween(String minKey, String maxKey) {
+        int min = new Integer(p.getProperty(minKey));
+        int dif = new Integer(p.getProperty(maxKey)) - min;
+        return min + stream().r.nextInt(dif + 1);
     }
 
     /**
@@ -133,7 +271,7 @@ public enum Config {
     public int rndNumFields() {
         int min = new Integer(p.getProperty("generator.basicfields.min"));
         int dif = new Integer(p.getProperty("generator.basicfields.max")) - min;
-        return min + r.nextInt(dif);
+        return min + stream().r.nextInt(dif);
     }
 
     /**
@@ -143,7 +281,183 @@ public enum Config {
     public int rndNumInterrelations() {
         int min = new Integer(p.getProperty("generator.reffields.min"));
         int dif = new Integer(p.getProperty("generator.reffields.max")) - min;
-        return min + r.nextInt(dif);
+        return min + stream().r.nextInt(dif);
+    }
+
+    /**
+     * @return <code>true</code> if it's determined that a field referencing
+     *         other beans should hold a collection of beans instead of a
+     *         single one, <code>false</code> otherwise.
+     */
+    public boolean shouldUseCollectionRef() {
+        double ratio = new Double(p.getProperty("generator.collectionrefs.ratio"));
+        return ratio > 0 && stream().r.nextDouble() < ratio;
+    }
+
+    /**
+     * @return <code>true</code> if it's determined that a field referencing
+     *         another bean should get a random <code>@NotNull</code> or
+     *         <code>@Null</code> constraint besides <code>@Valid</code>,
+     *         <code>false</code> otherwise.
+     */
+    public boolean shouldConstrainRef() {
+        double ratio = new Double(p.getProperty("generator.refconstraints.ratio"));
+        return ratio >= 1 || ratio > 0 && stream().r.nextDouble() < ratio;
+    }
+
+    /**
+     * @return <code>true</code> if it's determined that the bean referenced by
+     *         a field should get a back reference (wired to the referencing
+     *         bean or to another existing bean, making circular or shared
+     *         references), <code>false</code> otherwise.
+     */
+    public boolean shouldAddBackReference() {
+        double ratio = new Double(p.getProperty("generator.circularref.ratio"));
+        return ratio > 0 && stream().r.nextDouble() < ratio;
+    }
+
+    /**
+     * @return <code>true</code> if it's determined that a bean should get a
+     *         constrained business method and constructor, <code>false</code>
+     *         otherwise.
+     */
+    public boolean shouldAddExecutables() {
+        double ratio = new Double(p.getProperty("generator.executables.ratio"));
+        return ratio > 0 && stream().r.nextDouble() < ratio;
+    }
+
+    /**
+     * @return The names of the
+     *         {@link org.apache.bval.bench.metatree.BasicType basic types} of
+     *         the generated fields.
+     */
+    public List<String> getBasicTypeNames() {
+        return Arrays.asList(p.getProperty("generator.basictypes").split(","));
+    }
+
+    /**
+     * @return The names of the
+     *         {@link org.apache.bval.bench.jsr303.RegexPattern.Complexity complexities}
+     *         of the regular expressions of the <code>PATTERNED</code> fields.
+     */
+    public List<String> getPatternComplexityNames() {
+        return Arrays.asList(p.getProperty("generator.patterns.complexities").split(","));
+    }
+
+    /**
+     * @return The lengths of the values of the regular expressions, drawn at
+     *         random: a length can be repeated to be drawn more often.
+     */
+    public List<Integer> getPatternLengths() {
+        return parseInts(p.getProperty("generator.patterns.lengths"));
+    }
+
+    /**
+     * @return The lengths of the values of the regular expressions of the
+     *         <code>BACKTRACKING</code> complexity.
+     */
+    public List<Integer> getBacktrackingPatternLengths() {
+        return parseInts(p.getProperty("generator.patterns.backtracking.lengths"));
+    }
+
+    /**
+     * @return The number of levels of base beans: the base beans of a level
+     *         inherit from the ones of the level above, and the beans inherit
+     *         from the ones of the last level.
+     */
+    public int getInheritanceDepth() {
+        return new Integer(p.getProperty("generator.inheritance.depth"));
+    }
+
+    /**
+     * @return The depth of the deepest class and interface hierarchy, 0 for
+     *         no hierarchy. A hierarchy is generated for every depth up to this
+     *         one.
+     */
+    public int getHierarchyDepth() {
+        return new Integer(p.getProperty("generator.hierarchy.depth"));
+    }
+
+    /**
+     * @return The depth of the tree of composed constraints added to the
+     *         constraints of the string fields, 0 for no tree.
+     */
+    public int getCompositionDepth() {
+        return new Integer(p.getProperty("generator.composition.depth"));
+    }
+
+    /**
+     * @return The number of constraints composed by every composed constraint
+     *         of the tree.
+     */
+    public int getCompositionWidth() {
+        return new Integer(p.getProperty("generator.composition.width"));
+    }
+
+    /**
+     * @return <code>true</code> if it's determined that a composed constraint
+     *         of the trees should report a single violation,
+     *         <code>false</code> otherwise.
+     */
+    public boolean shouldReportAsSingleViolation() {
+        return stream().r.nextDouble() < new Double(p.getProperty("generator.composition.singleviolation.ratio"));
+    }
+
+    /**
+     * @return The name of the {@link org.apache.bval.bench.jsr303.Jsr303Annotator.MessageStyle}
+     *         of the messages of the built-in constraints.
+     */
+    public String getMessageStyle() {
+        return p.getProperty("generator.messages");
+    }
+
+    /**
+     * @return The name of the
+     *         {@link org.apache.bval.bench.metatree.ConstraintPlacement} of the
+     *         constraints of the basic and reference fields.
+     */
+    public String getConstraintPlacement() {
+        return p.getProperty("generator.constraint.placement");
+    }
+
+    /**
+     * @return <code>true</code> if it's determined that the constraints of a
+     *         field should be placed on the field rather than on its getter,
+     *         for the <code>MIXED</code> placement.
+     */
+    public boolean shouldPlaceOnField() {
+        return stream().r.nextDouble() < new Double(p.getProperty("generator.constraint.placement.fieldratio"));
+    }
+
+    /**
+     * @return The name of the {@link org.apache.bval.bench.jsr303.OverheadAnnotator.Mode}
+     *         of the constraints.
+     */
+    public String getOverheadMode() {
+        return p.getProperty("generator.overhead.mode");
+    }
+
+    /**
+     * @return The time spent by the validators in the <code>BUSY</code>
+     *         overhead mode, in nanoseconds.
+     */
+    public long getOverheadBusyNanos() {
+        return new Long(p.getProperty("generator.overhead.busy.nanos"));
+    }
+
+    /**
+     * @return The number of beans that a collection of beans should hold.
+     */
+    public int rndCollectionSize() {
+        return rndBetween("generator.collection.size.min", "generator.collection.size.max");
+    }
+
+    /**
+     * @return The maximum depth of the nested beans, the first level beans
+     *         being at depth 0.
+     */
+    public int getMaxDepth() {
+        return new Integer(p.getProperty("generator.depth.max"));
     }
 
     /**
@@ -153,15 +467,30 @@ public enum Config {
      *         added, <code>false</code> otherwise.
      */
     public boolean shouldAddNestedBean(int level) {
-        if (level == 0) {
-            return r.nextDouble() < new Double(p.getProperty("generator.level1.fillrate"));
-        } else if (level == 1) {
-            return r.nextDouble() < new Double(p.getProperty("generator.level2.fillrate"));
-        } else if (level == 2) {
-            return r.nextDouble() < new Double(p.getProperty("generator.level3.fillrate"));
-        } else {
+        if (level >= getMaxDepth()) {
             return false;
         }
+        return stream().r.nextDouble() < getFillRate(level);
+    }
+
+    /**
+     * The fill rates of the first levels are listed in
+     * <code>generator.depth.fillrates</code>, the fill rate of every following
+     * level is the one of the previous level multiplied by
+     * <code>generator.depth.decay</code>.
+     * 
+     * @param level
+     *            The level of nesting.
+     * @return The probability for a reference of a bean of this level to get a
+     *         nested bean.
+     */
+    private double getFillRate(int level) {
+        String[] fillRates = p.getProperty("generator.depth.fillrates").split(",");
+        if (level < fillRates.length) {
+            return new Double(fillRates[level].trim());
+        }
+        double decay = new Double(p.getProperty("generator.depth.decay"));
+        return new Double(fillRates[fillRates.length - 1].trim()) * Math.pow(decay, level - fillRates.length + 1);
     }
 
     /**
@@ -170,7 +499,7 @@ public enum Config {
      *         otherwise.
      */
     public boolean shouldAddGroupsToBeanFields() {
-        return r.nextDouble() < new Double(p.getProperty("generator.beanswithgroups"));
+        return stream().r.nextDouble() < new Double(p.getProperty("generator.beanswithgroups"));
     }
 
     /**
@@ -178,7 +507,7 @@ public enum Config {
      *         assigned to the current field, <code>false</code> otherwise.
      */
     public boolean shouldAssignValidValue() {
-        return r.nextDouble() < new Double(p.getProperty("generator.validvalues"));
+        return stream().r.nextDouble() < new Double(p.getProperty("generator.validvalues"));
     }
 
     /**
@@ -186,7 +515,7 @@ public enum Config {
      *         inherit from one of the base beans, <code>false</code> otherwise.
      */
     public boolean shouldInherit() {
-        return r.nextDouble() < new Double(p.getProperty("generator.inheritanceratio"));
+        return stream().r.nextDouble() < new Double(p.getProperty("generator.inheritanceratio"));
     }
     
     /**
@@ -212,6 +541,27 @@ public enum Config {
     }
 
 
+    private static List<Integer> parseInts(String values) {
+        List<Integer> ints = new ArrayList<Integer>();
+        for (String value : values.split(",")) {
+            ints.add(Integer.valueOf(value.trim()));
+        }
+        return ints;
+    }
+
+    /**
+     * @return The random stream bound to the current thread if any, the main
+     *         one otherwise.
+     */
+    private RandomStream stream() {
+        RandomStream stream = shardStream.get();
+        return stream != null ? stream : mainStream;
+    }
+
+    private long getSeed() {
+        return new Long(p.getProperty("generator.rnd.seed"));
+    }
+
     /**
      * @return A properties object with the default configuration values
      *         overriden by any user set values.
@@ -222,7 +572,8 @@ public enum Config {
             throw new RuntimeException("Could not obtain a class loader.");
         }
         Properties tmp = loadDefaultProperties(cl);
-        tmp = overrideDefaultProperties(cl, tmp);
+        tmp = overrideProperties(cl, MODULE_PROPERTIES_RES, tmp);
+        tmp = overrideProperties(cl, USER_PROPERTIES_RES, tmp);
         tmp = overrideWithSystemProperties(tmp);
         return tmp;
     }
@@ -250,17 +601,20 @@ public enum Config {
     }
 
     /**
-     * Load the file {@link #USER_PROPERTIES_RES}.
+     * Load the file {@link #MODULE_PROPERTIES_RES} (the defaults of a specific
+     * generator module) or {@link #USER_PROPERTIES_RES}, if present.
      * 
      * @param cl
      *            A classloader from which the properties file will be read.
+     * @param resource
+     *            The name of the properties file.
      * @param defaultProperties
      *            A properties object with the default configuration values.
      * @return A properties object with the default values overriden by the
-     *         user.
+     *         ones of the file.
      */
-    private Properties overrideDefaultProperties(ClassLoader cl, Properties defaultProperties) {
-        InputStream upStream = cl.getResourceAsStream(USER_PROPERTIES_RES);
+    private Properties overrideProperties(ClassLoader cl, String resource, Properties defaultProperties) {
+        InputStream upStream = cl.getResourceAsStream(resource);
         if (upStream == null) {
             return defaultProperties;
         }
@@ -270,7 +624,7 @@ public enum Config {
             userProperties.load(upStream);
             upStream.close(); // No finally, an exception here terminates the program
         } catch (IOException e) {
-            throw new RuntimeException("Error while reading user properties file.", e);
+            throw new RuntimeException("Error while reading properties file: " + resource, e);
         }
         return userProperties;
     }
@@ -292,4 +646,19 @@ public enum Config {
         return ret;
     }
 
+
+    /**
+     * A random generator along with its unique sequence.
+     */
+    private static final class RandomStream {
+
+        private final Random r;
+        private int uniqueSeq = 0;
+
+        private RandomStream(long seed) {
+            this.r = new Random(seed);
+        }
+
+    }
+
 }
@@ -22,23 +22,48 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Null;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
 import org.apache.bval.bench.jsr303.Jsr303Annotator;
+import org.apache.bval.bench.jsr303.MetaGroup;
+import org.apache.bval.bench.jsr303.OverheadAnnotator;
+import org.apache.bval.bench.jsr303.RegexPattern;
 import org.apache.bval.bench.metatree.AbstractMetaField;
 import org.apache.bval.bench.metatree.AnnotatorVisitor;
+import org.apache.bval.bench.metatree.BasicType;
+import org.apache.bval.bench.metatree.JavaBeanBasicField;
 import org.apache.bval.bench.metatree.JavaBeanRefField;
+import org.apache.bval.bench.metatree.MetaBeanInterface;
+import org.apache.bval.bench.metatree.MetaExecutable;
 import org.apache.bval.bench.metatree.MetaJavaBean;
+import org.apache.bval.bench.metatree.RefCardinality;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.sun.codemodel.JArray;
 import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JClassAlreadyExistsException;
 import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JForLoop;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
 import com.sun.codemodel.JVar;
 
 
@@ -51,24 +76,98 @@ import com.sun.codemodel.JVar;
  */
 public class Generator {
 
+    // The values of the properties of the class and interface hierarchies,
+    // the invalid one breaking their @Size and @Pattern constraints
+    private static final String HIERARCHY_VALID_VALUE = "good";
+    private static final String HIERARCHY_INVALID_VALUE = "1";
+
+    // The maximum length of the value property of the hierarchies, narrowed
+    // by one at every level
+    private static final int HIERARCHY_MAX_LENGTH = 64;
+
     // The code model root
     private final JCodeModel cm;
 
+    // The package of the holder class (and of the annotations)
+    private final String basePackageName;
+
+    // The package of the generated beans
+    private final String beansPackageName;
+
+    // The index of the first generated bean, used to name them
+    private final int firstBean;
+
+    // The number of generated rich beans
+    private final int numBeans;
+
     // The list of generated rich beans
     private final List<MetaJavaBean> beans;
 
     // The list of root simple beans used to inherit from
     private final List<MetaJavaBean> baseBeans;
 
+    // The JSR-303 annotator (or the overhead one swapping its constraints),
+    // kept apart to expose its groups in the holder
+    private final Jsr303Annotator jsr303Annotator;
+
     // The annotators used to spice the bean graph
     private final List<? extends AnnotatorVisitor> annotators;
 
 
     public Generator() {
+        this(Config.CFG.getBasePackageName(), Config.CFG.getBeansPackageName(), Config.CFG.getGroupsPackageName(), 0, Config.CFG.getNumBeans());
+    }
+
+    /**
+     * Creates a generator for a subset of the beans, placed in the given
+     * packages.
+     * 
+     * @param basePackageName
+     *            The package of the holder class and of the annotations.
+     * @param beansPackageName
+     *            The package of the beans.
+     * @param groupsPackageName
+     *            The package of the groups.
+     * @param firstBean
+     *            The index of the first bean, beans are named from it.
+     * @param numBeans
+     *            The number of beans to generate.
+     */
+    public Generator(String basePackageName, String beansPackageName, String groupsPackageName, int firstBean, int numBeans) {
         this.cm = new JCodeModel();
-        this.beans = Lists.newArrayListWithExpectedSize(Config.CFG.getNumBeans());
+        this.basePackageName = basePackageName;
+        this.beansPackageName = beansPackageName;
+        this.firstBean = firstBean;
+        this.numBeans = numBeans;
+        this.beans = Lists.newArrayListWithExpectedSize(numBeans);
         this.baseBeans = Lists.newArrayListWithExpectedSize(Config.CFG.getNumBaseBeans());
-        this.annotators = ImmutableList.of(new Jsr303Annotator(cm));
+        if (OverheadAnnotator.Mode.valueOf(Config.CFG.getOverheadMode()) == OverheadAnnotator.Mode.NONE) {
+            this.jsr303Annotator = new Jsr303Annotator(cm, basePackageName, groupsPackageName);
+        } else {
+            this.jsr303Annotator = new OverheadAnnotator(cm, basePackageName, groupsPackageName);
+        }
+        this.annotators = createAnnotators(jsr303Annotator);
+    }
+
+
+    /**
+     * Creates the annotators used to spice the bean graph. Called by the
+     * constructor, once the code model is created.
+     * 
+     * @param jsr303Annotator
+     *            The JSR-303 annotator, whose groups and composed constraints
+     *            are exposed in the holder class.
+     * @return The annotators, only the JSR-303 one by default.
+     */
+    protected List<? extends AnnotatorVisitor> createAnnotators(Jsr303Annotator jsr303Annotator) {
+        return ImmutableList.of(jsr303Annotator);
+    }
+
+    /**
+     * @return The code model the bean graph is generated in.
+     */
+    protected JCodeModel getCodeModel() {
+        return cm;
     }
 
 
@@ -93,7 +192,10 @@ public class Generator {
         // PHASE 5: Generate population code
         generatePopulationCode();
 
-        // PHASE 6: Output the bean graph .java files
+        // PHASE 6: Add constrained executables to some beans
+        generateExecutables();
+
+        // PHASE 7: Output the bean graph .java files
         outputJavaFiles();
     }
 
@@ -105,39 +207,71 @@ public class Generator {
      * POST: The {@link #beans} list is filled with simple beans.
      */
     private void generateBasicBeans() {
-        for (int i = 0; i < Config.CFG.getNumBeans(); ++i) {
-            MetaJavaBean mjb = new MetaJavaBean(cm, Config.CFG.getBeansPackageName() + ".Bean" + i, Config.CFG.rndNumFields());
+        for (int i = firstBean; i < firstBean + numBeans; ++i) {
+            MetaJavaBean mjb = new MetaJavaBean(cm, beansPackageName + ".Bean" + i, Config.CFG.rndNumFields());
             beans.add(mjb);
         }
     }
 
     /**
      * Adds fields referencing other beans to the list of beans. The target of
-     * these references are also beans in the list.
+     * these references are also beans in the list. Some of the referenced
+     * beans get a back reference to the referencing bean.
      * <p>
-     * POST: The beans in the {@link #beans} list get reference fields.
+     * POST: The beans in the {@link #beans} list get reference fields, and the
+     * fields added by {@link #enrichBean(MetaJavaBean, List)}.
      */
     private void enrichBasicBeans() {
         for (MetaJavaBean mjb : beans) {
             mjb.interrelate(beans);
         }
+        for (MetaJavaBean mjb : beans) {
+            enrichBean(mjb, beans);
+        }
+        for (MetaJavaBean mjb : beans) {
+            mjb.addBackReferences();
+        }
+    }
+
+    /**
+     * Adds fields of other kinds than the basic and reference ones to a bean,
+     * once all the beans reference each other. Does nothing by default.
+     * 
+     * @param mjb
+     *            The bean to enrich.
+     * @param beans
+     *            The first level beans, the fields may reference.
+     */
+    protected void enrichBean(MetaJavaBean mjb, List<MetaJavaBean> beans) {
+        // No other fields
     }
 
     /**
-     * Creates a list of base beans used as root of the inheritance tree, and
-     * sets them as superclass of some of the beans in {@link #beans}.
+     * Creates the levels of base beans of the inheritance tree (see
+     * {@link Config#getInheritanceDepth()}), each base bean inheriting from one
+     * of the level above, and sets the ones of the last level as superclass of
+     * some of the beans in {@link #beans}.
      * <p>
      * POST: The {@link #baseBeans} list is filled with simple beans and some
      * beans in {@link #beans} mark them as their superclass.
      */
     private void createInheritanceGraph() {
-        for (int i = 0; i < Config.CFG.getNumBaseBeans(); ++i) {
-            MetaJavaBean mjb = new MetaJavaBean(cm, Config.CFG.getBeansPackageName() + ".BaseBean" + i, Config.CFG.rndNumFields());
-            baseBeans.add(mjb);
+        List<MetaJavaBean> level = Lists.newArrayList();
+        for (int depth = 0; depth < Config.CFG.getInheritanceDepth(); ++depth) {
+            List<MetaJavaBean> superLevel = level;
+            level = Lists.newArrayListWithExpectedSize(Config.CFG.getNumBaseBeans());
+            for (int i = 0; i < Config.CFG.getNumBaseBeans(); ++i) {
+                MetaJavaBean mjb = new MetaJavaBean(cm, beansPackageName + ".BaseBean" + baseBeans.size(), Config.CFG.rndNumFields());
+                if (!superLevel.isEmpty()) {
+                    mjb.setSuperClass(Config.CFG.getRandom(superLevel));
+                }
+                level.add(mjb);
+                baseBeans.add(mjb);
+            }
         }
         for (MetaJavaBean mjb : beans) {
             if (Config.CFG.shouldInherit()) {
-                mjb.setSuperClass(Config.CFG.getRandom(baseBeans));
+                mjb.setSuperClass(Config.CFG.getRandom(level));
             }
         }
     }
@@ -161,23 +295,36 @@ public class Generator {
 
     /**
      * Generates a Holder class that will hold an {@link ArrayList} with all the
-     * first level beans in the graph (contents of {@link #beans}) on it.
+     * first level beans in the graph (contents of {@link #beans}) on it, a
+     * <code>GROUPS</code> array with all the generated JSR-303 groups, the
+     * <code>PATTERN_BEAN</code> and <code>PATTERN_SAMPLES</code> of the
+     * regular expressions, a <code>HIERARCHY_BEANS</code> array with the leaf
+     * classes of the class and interface hierarchies and a
+     * <code>PROPERTIES</code> array with the property table of every first
+     * level bean.
+     * <p>
+     * Every first level bean (and its nested beans) is created by its own
+     * static factory method, exposed as an indexed <code>SUPPLIERS</code>
+     * array, so that no generated method grows with the number of beans. The
+     * <code>VALUE_ASSIGNERS</code> array, indexed the same way, replaces the
+     * values of a created bean with valid or invalid ones.
      */
     private void generatePopulationCode() {
         try {
             // Generate the holder class
-            JDefinedClass holderClass = cm._class(Config.CFG.getBasePackageName() + ".Holder");
-            JClass alObject = (JClass) cm._ref(ArrayList.class);
-            alObject = alObject.narrow(Object.class);
-            JFieldVar beansField = holderClass.field(JMod.PUBLIC, alObject, "beans", JExpr._new(alObject));
-            JMethod defConstructor = holderClass.constructor(JMod.PUBLIC);
-            JBlock body = defConstructor.body();
-
-            // Init the beans and add them to the array
+            JDefinedClass holderClass = cm._class(basePackageName + ".Holder");
+            generateGroupsField(holderClass);
+            generatePatternFields(holderClass);
+            generateHierarchyBeansField(holderClass);
+
+            // One factory method per first level bean
+            List<JMethod> factories = Lists.newArrayListWithExpectedSize(beans.size());
             for (MetaJavaBean mjb : beans) {
                 mjb.generateStaticInitCode();
-                JVar beanDecl = generateBeanNonStaticInitCode(mjb, body, 0);
-                body.add(beansField.invoke("add").arg(beanDecl));
+                JMethod factory = holderClass.method(JMod.PUBLIC | JMod.STATIC, mjb.getGeneratedClass(), "create" + mjb.getName());
+                JVar beanDecl = generateBeanNonStaticInitCode(mjb, factory.body(), 0, Lists.<JVar> newArrayList(), Lists.<JVar> newArrayList());
+                factory.body()._return(beanDecl);
+                factories.add(factory);
             }
 
             // Init the base beans but don't add them to the array
@@ -185,12 +332,492 @@ public class Generator {
                 bmjb.generateStaticInitCode();
             }
 
+            // Reference the factory methods, in chunks of bounded size
+            JMethod createSuppliers = generateMethodRefArray(holderClass, supplierType(cm), "Suppliers", factories);
+
+            // The value assigners go last, so that the values they draw do not
+            // change the rest of the generated code
+            JMethod createValueAssigners = generateMethodRefArray(holderClass, valueAssignerType(cm), "ValueAssigners", generateValueAssigners(holderClass));
+
+            generateHolderPopulation(cm, holderClass, createSuppliers, createValueAssigners);
+
+            JMethod createProperties = generateMethodRefArray(holderClass, propertiesType(cm), "Properties", generatePropertyTables(holderClass));
+            generateArrayField(holderClass, propertiesType(cm), "PROPERTIES", createProperties);
+
         } catch (JClassAlreadyExistsException e) {
             throw new RuntimeException("Error generating the holder class.", e);
         }
     }
 
 
+    /**
+     * Adds to a holder class the <code>SUPPLIERS</code> and
+     * <code>VALUE_ASSIGNERS</code> arrays returned by the given methods, the
+     * <code>beans</code> list, a constructor that fills it with a bean from
+     * every supplier, and a constructor that also assigns valid or invalid
+     * values to every bean, according to the requested ratio of invalid beans.
+     * 
+     * @param cm
+     *            The code model of the holder class.
+     * @param holderClass
+     *            The holder class being generated.
+     * @param createSuppliers
+     *            A static method of the holder class returning the suppliers.
+     * @param createValueAssigners
+     *            A static method of the holder class returning the value
+     *            assigners, in the same order as the suppliers.
+     */
+    static void generateHolderPopulation(JCodeModel cm, JDefinedClass holderClass, JMethod createSuppliers, JMethod createValueAssigners) {
+        JClass alObject = (JClass) cm._ref(ArrayList.class);
+        alObject = alObject.narrow(Object.class);
+        JFieldVar beansField = holderClass.field(JMod.PUBLIC, alObject, "beans", JExpr._new(alObject));
+        JFieldVar suppliersField = holderClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, supplierType(cm).array(), "SUPPLIERS", JExpr.invoke(createSuppliers));
+        JFieldVar assignersField = holderClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, valueAssignerType(cm).array(), "VALUE_ASSIGNERS", JExpr.invoke(createValueAssigners));
+
+        JBlock body = holderClass.constructor(JMod.PUBLIC).body();
+        JForEach forEach = body.forEach(supplierType(cm), "supplier", suppliersField);
+        forEach.body().add(beansField.invoke("add").arg(forEach.var().invoke("get")));
+
+        // The invalid beans are spread evenly: bean i is invalid when
+        // floor((i+1)*ratio) > floor(i*ratio), so exactly floor(n*ratio) are
+        JMethod ratioConstructor = holderClass.constructor(JMod.PUBLIC);
+        ratioConstructor.javadoc().add("Builds the population with the given ratio (between 0 and 1) of beans holding invalid values, the other ones holding only valid values.");
+        JVar invalidRatio = ratioConstructor.param(double.class, "invalidRatio");
+        body = ratioConstructor.body();
+        JForLoop forLoop = body._for();
+        JVar i = forLoop.init(cm.INT, "i", JExpr.lit(0));
+        forLoop.test(i.lt(suppliersField.ref("length")));
+        forLoop.update(i.incr());
+        JExpression supplier = suppliersField.component(i);
+        JExpression assigner = assignersField.component(i);
+        JExpression validUpTo = JExpr.cast(cm.INT, i.plus(JExpr.lit(1)).mul(invalidRatio));
+        JVar bean = forLoop.body().decl(cm.ref(Object.class), "bean", supplier.invoke("get"));
+        JExpression valid = validUpTo.eq(JExpr.cast(cm.INT, i.mul(invalidRatio)));
+        forLoop.body().add(assigner.invoke("accept").arg(bean).arg(valid));
+        forLoop.body().add(beansField.invoke("add").arg(bean));
+    }
+
+    /**
+     * Adds a public static array returned by the given method to a holder
+     * class.
+     * 
+     * @param holderClass
+     *            The holder class being generated.
+     * @param elementType
+     *            The type of the elements of the array.
+     * @param fieldName
+     *            The name of the array.
+     * @param create
+     *            A static method of the holder class returning the array,
+     *            in the same order as the suppliers.
+     */
+    static void generateArrayField(JDefinedClass holderClass, JClass elementType, String fieldName, JMethod create) {
+        holderClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, elementType.array(), fieldName, JExpr.invoke(create));
+    }
+
+    /**
+     * @param cm
+     *            The code model.
+     * @return The <code>Supplier&lt;Object&gt;</code> type.
+     */
+    static JClass supplierType(JCodeModel cm) {
+        return ((JClass) cm._ref(Supplier.class)).narrow(Object.class);
+    }
+
+    /**
+     * @param cm
+     *            The code model.
+     * @return The <code>BiConsumer&lt;Object, Boolean&gt;</code> type, taking
+     *         a bean and whether the values to assign must be valid.
+     */
+    static JClass valueAssignerType(JCodeModel cm) {
+        return ((JClass) cm._ref(BiConsumer.class)).narrow(Object.class, Boolean.class);
+    }
+
+
+    /**
+     * @param cm
+     *            The code model.
+     * @return The <code>Function&lt;Object, Object[]&gt;</code> type, taking a
+     *         bean and returning the arguments of its constrained executables.
+     */
+    static JClass argumentsType(JCodeModel cm) {
+        return ((JClass) cm._ref(Function.class)).narrow(cm.ref(Object.class), cm.ref(Object.class).array());
+    }
+
+
+    /**
+     * @param cm
+     *            The code model.
+     * @return The <code>Supplier&lt;Object[][]&gt;</code> type, returning the
+     *         property table of a bean.
+     */
+    static JClass propertiesType(JCodeModel cm) {
+        return ((JClass) cm._ref(Supplier.class)).narrow(cm.ref(Object.class).array().array());
+    }
+
+
+    /**
+     * Generates a static method returning an array referencing the given
+     * static methods of the holder class. The array is filled in chunks of
+     * {@link Config#getHolderChunkSize()} elements, one method per chunk.
+     * 
+     * @param holderClass
+     *            The holder class being generated.
+     * @param elementType
+     *            The functional interface the methods are converted to.
+     * @param name
+     *            The name of the array, used to name the generated methods.
+     * @param methods
+     *            The referenced methods.
+     * @return The method returning the array.
+     */
+    private JMethod generateMethodRefArray(JDefinedClass holderClass, JClass elementType, String name, List<JMethod> methods) {
+        JClass arrayType = elementType.array();
+        JMethod create = holderClass.method(JMod.PRIVATE | JMod.STATIC, arrayType, "create" + name);
+        create.annotate(SuppressWarnings.class).param("value", "unchecked");
+        JVar array = create.body().decl(arrayType, name.substring(0, 1).toLowerCase() + name.substring(1), JExpr.newArray(elementType.erasure(), methods.size()));
+        int chunkSize = Config.CFG.getHolderChunkSize();
+        for (int chunk = 0; chunk * chunkSize < methods.size(); ++chunk) {
+            JMethod fill = holderClass.method(JMod.PRIVATE | JMod.STATIC, void.class, "fill" + name + chunk);
+            JVar chunkArray = fill.param(arrayType, array.name());
+            for (int i = chunk * chunkSize; i < Math.min((chunk + 1) * chunkSize, methods.size()); ++i) {
+                // CodeModel has no support for method references
+                fill.body().assign(chunkArray.component(JExpr.lit(i)), JExpr.direct(holderClass.name() + "::" + methods.get(i).name()));
+            }
+            create.body().invoke(fill).arg(array);
+        }
+        create.body()._return(array);
+        return create;
+    }
+
+
+    /**
+     * Generates, for every bean and base bean, a static method of the holder
+     * class assigning valid or invalid values to an instance and to its
+     * nested beans, and for every first level bean an entry point usable as a
+     * <code>BiConsumer&lt;Object, Boolean&gt;</code>.
+     * <p>
+     * The valid and invalid values of every basic field are drawn from the
+     * values of its constraints. When valid values are requested, the
+     * <code>@Null</code> references are cleared and the missing
+     * <code>@NotNull</code> references point to a valid instance shared by all
+     * the beans of the same first level bean (or to an empty collection), so
+     * that no violation is left.
+     * 
+     * @param holderClass
+     *            The holder class being generated.
+     * @return The entry points, in the order of {@link #beans}.
+     */
+    private List<JMethod> generateValueAssigners(JDefinedClass holderClass) {
+        JClass sharedType = ((JClass) cm._ref(Map.class)).narrow(((JClass) cm._ref(Class.class)).narrow(cm.wildcard()), cm.ref(Object.class));
+        JClass sharedImplType = ((JClass) cm._ref(HashMap.class)).narrow(((JClass) cm._ref(Class.class)).narrow(cm.wildcard()), cm.ref(Object.class));
+
+        // Declare all the methods first, as they reference each other
+        Map<MetaJavaBean, JMethod> assigners = Maps.newHashMap();
+        for (MetaJavaBean mjb : Iterables.concat(baseBeans, beans)) {
+            JMethod assigner = holderClass.method(JMod.PRIVATE | JMod.STATIC, void.class, "assign" + mjb.getName());
+            assigner.param(mjb.getGeneratedClass(), "bean");
+            assigner.param(boolean.class, "valid");
+            assigner.param(sharedType, "shared");
+            assigners.put(mjb, assigner);
+        }
+
+        for (MetaJavaBean mjb : Iterables.concat(baseBeans, beans)) {
+            JMethod assigner = assigners.get(mjb);
+            JVar bean = assigner.listParams()[0];
+            JVar valid = assigner.listParams()[1];
+            JVar shared = assigner.listParams()[2];
+            JBlock body = assigner.body();
+
+            if (mjb.getSuperClass() != null) {
+                body.invoke(assigners.get(mjb.getSuperClass())).arg(bean).arg(valid).arg(shared);
+            }
+            for (AbstractMetaField amf : mjb.getFields()) {
+                if (amf instanceof JavaBeanBasicField) {
+                    JavaBeanBasicField jbbf = (JavaBeanBasicField) amf;
+                    if (jbbf.getValidValues() == null || jbbf.getValidValues().isEmpty() || jbbf.getInvalidValues().isEmpty()) {
+                        continue;
+                    }
+                    Object validValue = Config.CFG.getRandom(jbbf.getValidValues());
+                    Object invalidValue = Config.CFG.getRandom(jbbf.getInvalidValues());
+                    jbbf.generateAssignCode(body, bean, JOp.cond(valid, Util.literalExpr(cm, validValue), Util.literalExpr(cm, invalidValue)));
+                } else if (amf instanceof JavaBeanRefField) {
+                    // The back references point to beans reached by other paths
+                    if (!((JavaBeanRefField) amf).isBackReference()) {
+                        generateRefValueAssignCode((JavaBeanRefField) amf, assigners, body, bean, valid, shared);
+                    }
+                } else {
+                    generateFieldValueAssignCode(amf, assigners, body, bean, valid, shared);
+                }
+            }
+        }
+
+        List<JMethod> entryPoints = Lists.newArrayListWithExpectedSize(beans.size());
+        for (MetaJavaBean mjb : beans) {
+            JMethod entryPoint = holderClass.method(JMod.PRIVATE | JMod.STATIC, void.class, "assignValues" + mjb.getName());
+            JVar bean = entryPoint.param(Object.class, "bean");
+            JVar valid = entryPoint.param(boolean.class, "valid");
+            entryPoint.body().invoke(assigners.get(mjb)).arg(JExpr.cast(mjb.getGeneratedClass(), bean)).arg(valid).arg(JExpr._new(sharedImplType));
+            entryPoints.add(entryPoint);
+        }
+        return entryPoints;
+    }
+
+    /**
+     * Generates, for every first level bean, a static method of the holder
+     * class returning the table of the constrained basic properties it
+     * declares. Every row holds the name of a property, a valid value and an
+     * invalid value for it, and the name of the {@link BasicType} of the
+     * property.
+     * <p>
+     * The inherited properties are left out: their constraints may belong to
+     * the groups of the group sequence of the superclass, which are not
+     * validated by default for the bean. The first valid and invalid values
+     * of every field are used, so that no value is drawn.
+     * 
+     * @param holderClass
+     *            The holder class being generated.
+     * @return The methods, in the order of {@link #beans}.
+     */
+    private List<JMethod> generatePropertyTables(JDefinedClass holderClass) {
+        JClass rowType = cm.ref(Object.class).array();
+        List<JMethod> tables = Lists.newArrayListWithExpectedSize(beans.size());
+        for (MetaJavaBean mjb : beans) {
+            JArray rows = JExpr.newArray(rowType);
+            for (JavaBeanBasicField jbbf : mjb.getBasicFields()) {
+                if (jbbf.getValidValues() == null || jbbf.getValidValues().isEmpty() || jbbf.getInvalidValues().isEmpty()) {
+                    continue;
+                }
+                rows.add(JExpr.newArray(cm.ref(Object.class)).add(JExpr.lit(jbbf.getName())).add(Util.literalExpr(cm, jbbf.getValidValues().get(0))).add(Util.literalExpr(cm, jbbf.getInvalidValues().get(0))).add(JExpr.lit(jbbf.getBasicType().name())));
+            }
+            JMethod table = holderClass.method(JMod.PRIVATE | JMod.STATIC, rowType.array(), "properties" + mjb.getName());
+            table.body()._return(rows);
+            tables.add(table);
+        }
+        return tables;
+    }
+
+    /**
+     * Generates the code assigning valid or invalid values to a field of
+     * another kind than the basic and reference ones, in the value assigner
+     * of its bean. Does nothing by default.
+     * 
+     * @param amf
+     *            The field.
+     * @param assigners
+     *            The value assigners of all the beans and base beans.
+     * @param body
+     *            The body of the value assigner.
+     * @param bean
+     *            The bean the values are assigned to.
+     * @param valid
+     *            Whether valid values are assigned.
+     * @param shared
+     *            The valid instances shared by the beans of a first level
+     *            bean, by class.
+     */
+    protected void generateFieldValueAssignCode(AbstractMetaField amf, Map<MetaJavaBean, JMethod> assigners, JBlock body, JVar bean, JVar valid, JVar shared) {
+        // No other fields
+    }
+
+    private void generateRefValueAssignCode(JavaBeanRefField jbrf, Map<MetaJavaBean, JMethod> assigners, JBlock body, JVar bean, JVar valid, JVar shared) {
+        JMethod refAssigner = assigners.get(jbrf.getRefBean());
+        JDefinedClass refClass = jbrf.getRefBean().getGeneratedClass();
+
+        if (jbrf.hasAnnotation(Null.class)) {
+            JConditional ifValid = body._if(valid);
+            jbrf.generateAssignCode(ifValid._then(), bean, JExpr._null());
+            JBlock ifPresent = ifValid._elseif(jbrf.generateGetCode(bean).ne(JExpr._null()))._then();
+            generateNestedValueAssignCode(jbrf, refAssigner, ifPresent, bean, valid, shared);
+        } else {
+            JConditional ifPresent = body._if(jbrf.generateGetCode(bean).ne(JExpr._null()));
+            generateNestedValueAssignCode(jbrf, refAssigner, ifPresent._then(), bean, valid, shared);
+            if (jbrf.hasAnnotation(NotNull.class)) {
+                JBlock ifMissing = ifPresent._elseif(valid)._then();
+                if (jbrf.getCardinality() == RefCardinality.ONE) {
+                    JVar ref = ifMissing.decl(refClass, jbrf.getName(), JExpr.cast(refClass, shared.invoke("get").arg(JExpr.dotclass(refClass))));
+                    JBlock ifNew = ifMissing._if(ref.eq(JExpr._null()))._then();
+                    ifNew.assign(ref, JExpr._new(refClass));
+                    ifNew.add(shared.invoke("put").arg(JExpr.dotclass(refClass)).arg(ref));
+                    ifNew.invoke(refAssigner).arg(ref).arg(JExpr.TRUE).arg(shared);
+                    jbrf.generateAssignCode(ifMissing, bean, ref);
+                } else {
+                    // An empty collection is enough
+                    jbrf.generateAssignCode(ifMissing, bean, jbrf.generateNewCollectionCode(ifMissing));
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates the call to the value assigner of a referenced bean, or of
+     * every bean of a referenced collection.
+     */
+    private void generateNestedValueAssignCode(JavaBeanRefField jbrf, JMethod refAssigner, JBlock body, JVar bean, JVar valid, JVar shared) {
+        if (jbrf.getCardinality() == RefCardinality.ONE) {
+            body.invoke(refAssigner).arg(jbrf.generateGetCode(bean)).arg(valid).arg(shared);
+        } else {
+            JForEach forEach = body.forEach(jbrf.getRefBean().getGeneratedClass(), jbrf.getName() + "Element", jbrf.generateGetElementsCode(bean));
+            forEach.body().invoke(refAssigner).arg(forEach.var()).arg(valid).arg(shared);
+        }
+    }
+
+
+    /**
+     * Adds a constrained business method and constructor to some of the beans
+     * in {@link #beans} (see {@link MetaJavaBean#addExecutables()}), annotated
+     * by the available annotators, and an <code>ARGUMENTS</code> array to the
+     * holder class. Its functions, indexed as the <code>SUPPLIERS</code>,
+     * return the values of the basic fields of a bean in the order of the
+     * parameters of its executables: the arguments are valid or invalid
+     * depending on the values assigned to the bean.
+     * <p>
+     * The executables are added once the population code is generated, so
+     * that the values they draw do not change it.
+     */
+    private void generateExecutables() {
+        for (MetaJavaBean mjb : beans) {
+            if (Config.CFG.shouldAddExecutables()) {
+                mjb.addExecutables();
+                for (MetaExecutable me : mjb.getExecutables()) {
+                    for (AnnotatorVisitor annotator : annotators) {
+                        me.accept(annotator);
+                    }
+                }
+            }
+        }
+
+        JDefinedClass holderClass = cm._getClass(basePackageName + ".Holder");
+        List<JMethod> extractors = Lists.newArrayListWithExpectedSize(beans.size());
+        for (MetaJavaBean mjb : beans) {
+            JMethod extractor = holderClass.method(JMod.PRIVATE | JMod.STATIC, Object[].class, "arguments" + mjb.getName());
+            JVar bean = extractor.param(Object.class, "bean");
+            JVar typedBean = extractor.body().decl(mjb.getGeneratedClass(), "typedBean", JExpr.cast(mjb.getGeneratedClass(), bean));
+            JArray arguments = JExpr.newArray(cm.ref(Object.class));
+            for (JavaBeanBasicField jbbf : mjb.getBasicFields()) {
+                arguments.add(jbbf.generateGetCode(typedBean));
+            }
+            extractor.body()._return(arguments);
+            extractors.add(extractor);
+        }
+        generateArrayField(holderClass, argumentsType(cm), "ARGUMENTS", generateMethodRefArray(holderClass, argumentsType(cm), "Arguments", extractors));
+    }
+
+
+    /**
+     * Adds a <code>public static final Class&lt;?&gt;[] GROUPS</code> field to
+     * the holder class, listing the groups created by {@link #jsr303Annotator}
+     * in the order they were generated.
+     * 
+     * @param holderClass
+     *            The holder class being generated.
+     */
+    private void generateGroupsField(JDefinedClass holderClass) {
+        JClass classType = ((JClass) cm._ref(Class.class)).narrow(cm.wildcard());
+        JArray groupsArray = JExpr.newArray(classType);
+        for (MetaGroup group : jsr303Annotator.getGroups()) {
+            groupsArray.add(JExpr.dotclass(group.getGeneratedClass()));
+        }
+        holderClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, classType.array(), "GROUPS", groupsArray);
+    }
+
+
+    /**
+     * Generates a bean with a string property per {@link RegexPattern},
+     * constrained by its regular expression, and adds to the holder class a
+     * <code>PATTERN_BEAN</code> field with its class and a
+     * <code>PATTERN_SAMPLES</code> array with the values of every pattern:
+     * each row holds the name of the pattern, a length, a valid value and an
+     * invalid value of this length.
+     * 
+     * @param holderClass
+     *            The holder class being generated.
+     * @throws JClassAlreadyExistsException
+     *             If the bean was already generated.
+     */
+    private void generatePatternFields(JDefinedClass holderClass) throws JClassAlreadyExistsException {
+        JDefinedClass bean = cm._class(beansPackageName + ".PatternBean");
+        JClass rowType = cm.ref(Object.class).array();
+        JArray rows = JExpr.newArray(rowType);
+        for (RegexPattern pattern : RegexPattern.values()) {
+            bean.field(JMod.PRIVATE, String.class, pattern.getPropertyName()).annotate(Pattern.class).param("regexp", pattern.getRegexp());
+            for (Integer length : pattern.getLengths()) {
+                rows.add(JExpr.newArray(cm.ref(Object.class)).add(JExpr.lit(pattern.name())).add(JExpr.lit(length)).add(JExpr.lit(pattern.validValue(length))).add(JExpr.lit(pattern.invalidValue(length))));
+            }
+        }
+        JClass classType = ((JClass) cm._ref(Class.class)).narrow(cm.wildcard());
+        holderClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, classType, "PATTERN_BEAN", JExpr.dotclass(bean));
+        holderClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, rowType.array(), "PATTERN_SAMPLES", rows);
+    }
+
+
+    /**
+     * Generates a class and interface hierarchy for every depth up to
+     * {@link Config#getHierarchyDepth()}, and adds to the holder class a
+     * <code>HIERARCHY_BEANS</code> array with the leaf class of each of them,
+     * by depth.
+     * <p>
+     * The n-th level of the hierarchy of depth d is made of the
+     * <code>Hierarchy&lt;d&gt;Bean&lt;n&gt;</code> class, extending the class
+     * of the level above, and of the <code>Hierarchy&lt;d&gt;Interface&lt;n&gt;</code>
+     * interface it implements, extending the interface of the level above.
+     * Every level redefines the <code>value</code> property with a narrower
+     * <code>@Size</code> on the interface and a narrower <code>@Pattern</code>
+     * on the class, and adds a <code>level&lt;n&gt;</code> property,
+     * <code>@NotNull</code> on the interface and <code>@Pattern</code> on the
+     * class. The classes have a constructor taking whether their values are
+     * valid: an invalid bean breaks 3 constraints per level.
+     * 
+     * @param holderClass
+     *            The holder class being generated.
+     * @throws JClassAlreadyExistsException
+     *             If a class of the hierarchies was already generated.
+     */
+    private void generateHierarchyBeansField(JDefinedClass holderClass) throws JClassAlreadyExistsException {
+        JClass classType = ((JClass) cm._ref(Class.class)).narrow(cm.wildcard());
+        JArray hierarchyBeansArray = JExpr.newArray(classType);
+        for (int depth = 1; depth <= Config.CFG.getHierarchyDepth(); ++depth) {
+            JDefinedClass superClass = null;
+            MetaBeanInterface superInterface = null;
+            for (int level = 1; level <= depth; ++level) {
+                String prefix = beansPackageName + ".Hierarchy" + depth;
+                int maxLength = HIERARCHY_MAX_LENGTH - level;
+                MetaBeanInterface mbi = new MetaBeanInterface(cm, prefix + "Interface" + level, superInterface);
+                mbi.addGetter(String.class, "getValue").annotate(Size.class).param("min", 2).param("max", maxLength);
+                mbi.addGetter(String.class, "getLevel" + level).annotate(NotNull.class);
+
+                JDefinedClass bean = cm._class(prefix + "Bean" + level);
+                bean._implements(mbi.getGeneratedClass());
+                JMethod constructor = bean.constructor(JMod.PUBLIC);
+                JVar valid = constructor.param(boolean.class, "valid");
+                JMethod valueGetter = bean.method(JMod.PUBLIC, String.class, "getValue");
+                valueGetter.annotate(Pattern.class).param("regexp", "[a-z]{2," + maxLength + "}");
+                if (superClass == null) {
+                    JFieldVar value = bean.field(JMod.PRIVATE, String.class, "value");
+                    constructor.body().assign(JExpr._this().ref(value), JOp.cond(valid, JExpr.lit(HIERARCHY_VALID_VALUE), JExpr.lit(HIERARCHY_INVALID_VALUE)));
+                    valueGetter.body()._return(value);
+                } else {
+                    bean._extends(superClass);
+                    constructor.body().invoke("super").arg(valid);
+                    valueGetter.annotate(Override.class);
+                    valueGetter.body()._return(JExpr._super().invoke(valueGetter));
+                }
+                JFieldVar levelField = bean.field(JMod.PRIVATE, String.class, "level" + level);
+                constructor.body().assign(JExpr._this().ref(levelField), JOp.cond(valid, JExpr.lit(HIERARCHY_VALID_VALUE), JExpr._null()));
+                JMethod levelGetter = bean.method(JMod.PUBLIC, String.class, "getLevel" + level);
+                levelGetter.annotate(Pattern.class).param("regexp", "[a-z]+");
+                levelGetter.body()._return(levelField);
+
+                superClass = bean;
+                superInterface = mbi;
+            }
+            hierarchyBeansArray.add(JExpr.dotclass(superClass));
+        }
+        holderClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, classType.array(), "HIERARCHY_BEANS", hierarchyBeansArray);
+    }
+
+
     /**
      * Outputs the meta-contents of {@link #cm} to .java files generated on
      * {@link Config.CFG#getOutputDir()}.
@@ -209,6 +836,11 @@ public class Generator {
     /**
      * Recursive method that handles the creation of reference beans at
      * different depth levels.
+     * <p>
+     * The back references point either to the bean referencing the created
+     * bean (a circular reference) or to the last bean completely created
+     * before it by the same factory method (a shared bean), and stay
+     * <code>null</code> in the first level beans.
      * 
      * @param mjb
      *            The target bean to create an instance of.
@@ -216,9 +848,14 @@ public class Generator {
      *            The current block of code.
      * @param level
      *            The current depth level.
+     * @param ancestors
+     *            The beans being created, from the first level one.
+     * @param created
+     *            The beans completely created and visible from the current
+     *            block of code.
      * @return A generated variable referencing the created bean.
      */
-    private JVar generateBeanNonStaticInitCode(MetaJavaBean mjb, JBlock body, int level) {
+    protected JVar generateBeanNonStaticInitCode(MetaJavaBean mjb, JBlock body, int level, List<JVar> ancestors, List<JVar> created) {
 
         JVar beanDecl = body.decl(mjb.getGeneratedClass(), "lvl" + level + mjb.getName() + "_" + Config.CFG.nextUniqueNum());
         body.assign(beanDecl, JExpr._new(mjb.getGeneratedClass()));
@@ -228,29 +865,136 @@ public class Generator {
 
                 JavaBeanRefField jbrf = (JavaBeanRefField) amf;
 
-                // Should a nested bean be created?
-                if (Config.CFG.shouldAddNestedBean(level)) {
-                    JVar nestedBeanDecl = generateBeanNonStaticInitCode(jbrf.getRefBean(), body, level + 1);
-                    jbrf.generateAssignCode(body, beanDecl, nestedBeanDecl);
+                if (jbrf.isBackReference()) {
+                    List<JVar> existingBeanDecls = Lists.newArrayListWithExpectedSize(2);
+                    if (!ancestors.isEmpty()) {
+                        existingBeanDecls.add(ancestors.get(ancestors.size() - 1));
+                    }
+                    if (!created.isEmpty()) {
+                        existingBeanDecls.add(created.get(created.size() - 1));
+                    }
+                    if (!existingBeanDecls.isEmpty()) {
+                        jbrf.generateAssignCode(body, beanDecl, Config.CFG.getRandom(existingBeanDecls));
+                    }
                 }
+                // Should a nested bean (or collection of beans) be created?
+                else if (Config.CFG.shouldAddNestedBean(level)) {
+                    ancestors.add(beanDecl);
+                    int visible = created.size();
+                    if (jbrf.getCardinality() == RefCardinality.ONE) {
+                        JVar nestedBeanDecl = generateBeanNonStaticInitCode(jbrf.getRefBean(), body, level + 1, ancestors, created);
+                        jbrf.generateAssignCode(body, beanDecl, nestedBeanDecl);
+                    } else {
+                        JVar collectionDecl = generateCollectionNonStaticInitCode(jbrf, body, level, ancestors, created);
+                        jbrf.generateAssignCode(body, beanDecl, collectionDecl);
+                    }
+                    if (jbrf.hasAnnotation(Null.class)) {
+                        // Not shared, as the value assigners detach them
+                        created.subList(visible, created.size()).clear();
+                    }
+                    ancestors.remove(ancestors.size() - 1);
+                }
+            } else if (!(amf instanceof JavaBeanBasicField)) {
+                generateFieldInitCode(amf, beanDecl, body, level, ancestors, created);
             }
 
         }
 
+        created.add(beanDecl);
         return beanDecl;
     }
 
+    /**
+     * Generates the code initializing a field of another kind than the basic
+     * and reference ones, in the factory method of a first level bean. Does
+     * nothing by default.
+     * 
+     * @param amf
+     *            The field.
+     * @param beanDecl
+     *            The bean owning the field.
+     * @param body
+     *            The current block of code.
+     * @param level
+     *            The depth level of the bean owning the field.
+     * @param ancestors
+     *            The beans being created, from the first level one.
+     * @param created
+     *            The beans completely created and visible from the current
+     *            block of code.
+     */
+    protected void generateFieldInitCode(AbstractMetaField amf, JVar beanDecl, JBlock body, int level, List<JVar> ancestors, List<JVar> created) {
+        // No other fields
+    }
 
     /**
-     * Creates a new {@link Generator} object and calls
-     * {@link #generateBeanGraph()} on it.
+     * Generates the creation of the collection of a collection field, holding
+     * {@link Config#rndCollectionSize()} beans. The beans are created in a
+     * loop, so that the generated code does not grow with the size of the
+     * collection: they all get the same nested beans, but are distinct
+     * instances.
+     * 
+     * @param jbrf
+     *            The collection field.
+     * @param body
+     *            The current block of code.
+     * @param level
+     *            The depth level of the bean owning the collection.
+     * @param ancestors
+     *            The beans being created, including the owner of the
+     *            collection.
+     * @param created
+     *            The beans completely created and visible from the current
+     *            block of code.
+     * @return A generated variable referencing the created collection.
+     */
+    private JVar generateCollectionNonStaticInitCode(JavaBeanRefField jbrf, JBlock body, int level, List<JVar> ancestors, List<JVar> created) {
+        JVar collectionDecl = jbrf.generateNewCollectionCode(body);
+        JForLoop forLoop = body._for();
+        JVar i = forLoop.init(cm.INT, "i" + Config.CFG.nextUniqueNum(), JExpr.lit(0));
+        forLoop.test(i.lt(JExpr.lit(Config.CFG.rndCollectionSize())));
+        forLoop.update(i.incr());
+        int visible = created.size();
+        JVar elementDecl = generateBeanNonStaticInitCode(jbrf.getRefBean(), forLoop.body(), level + 1, ancestors, created);
+        jbrf.generateAddElementCode(forLoop.body(), collectionDecl, i, elementDecl);
+        // The beans created in the loop are out of scope after it
+        created.subList(visible, created.size()).clear();
+        return collectionDecl;
+    }
+
+
+    /**
+     * Generates the default population, then every population listed by
+     * {@link Config#getPopulationNames()} in a package of its own.
      * 
      * @param args
      *            Unused.
      */
     public static void main(String[] args) {
         System.out.println("Starting bean graph generation...");
-        new Generator().generateBeanGraph();
+        generatePopulation();
+        for (String population : Config.CFG.getPopulationNames()) {
+            System.out.println("Starting bean graph generation of the " + population + " population...");
+            Config.CFG.enterPopulation(population);
+            try {
+                generatePopulation();
+            } finally {
+                Config.CFG.exitPopulation();
+            }
+        }
+    }
+
+    /**
+     * Creates a new {@link Generator} object, or a {@link ShardedGenerator}
+     * if more than one shard is configured, and calls
+     * {@link #generateBeanGraph()} on it.
+     */
+    private static void generatePopulation() {
+        if (Config.CFG.getNumShards() > 1) {
+            new ShardedGenerator().generateBeanGraph();
+        } else {
+            new Generator().generateBeanGraph();
+        }
         System.out.println("Generated " + Config.CFG.getNumBeans() + " beans.");
     }
 
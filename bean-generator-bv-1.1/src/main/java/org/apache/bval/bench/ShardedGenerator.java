@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import com.google.common.collect.Lists;
+import com.sun.codemodel.JArray;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JVar;
+
+
+/**
+ * Splits the bean graph in {@link Config#getNumShards()} independent shards,
+ * each one generated by its own {@link Generator} in its own package
+ * (<code>&lt;base package&gt;.shardN</code>), and generates them in parallel on
+ * a fork-join pool.
+ * <p>
+ * Every shard draws its random values from its own stream (see
+ * {@link Config#enterShard(int)}), so the output does not depend on the
+ * number of threads.
+ * <p>
+ * A top level Holder class aggregates the beans and groups of all the shards.
+ */
+public class ShardedGenerator {
+
+    private final int numShards;
+
+
+    public ShardedGenerator() {
+        this.numShards = Config.CFG.getNumShards();
+    }
+
+
+    /**
+     * Generates every shard of the bean graph, and then the top level holder.
+     */
+    public void generateBeanGraph() {
+        List<ShardTask> tasks = Lists.newArrayListWithExpectedSize(numShards);
+        int beansPerShard = Config.CFG.getNumBeans() / numShards;
+        int remainder = Config.CFG.getNumBeans() % numShards;
+        int firstBean = 0;
+        for (int shard = 0; shard < numShards; ++shard) {
+            int numBeans = beansPerShard + (shard < remainder ? 1 : 0);
+            tasks.add(new ShardTask(shard, firstBean, numBeans));
+            firstBean += numBeans;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Config.CFG.getNumGeneratorThreads());
+        try {
+            for (ShardTask task : tasks) {
+                pool.execute(task);
+            }
+            for (ShardTask task : tasks) {
+                task.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        generateHolder(tasks);
+    }
+
+
+    /**
+     * Generates a Holder class in the base package whose <code>SUPPLIERS</code>,
+     * <code>VALUE_ASSIGNERS</code>, <code>ARGUMENTS</code> and
+     * <code>PROPERTIES</code> arrays
+     * concatenate the ones of every shard holder, and whose
+     * <code>GROUPS</code> array lists the groups of every shard. Its
+     * <code>PATTERN_BEAN</code>, <code>PATTERN_SAMPLES</code> and
+     * <code>HIERARCHY_BEANS</code> fields are the ones of the first shard.
+     * 
+     * @param tasks
+     *            The generated shards.
+     */
+    private void generateHolder(List<ShardTask> tasks) {
+        JCodeModel cm = new JCodeModel();
+        try {
+            JDefinedClass holderClass = cm._class(Config.CFG.getBasePackageName() + ".Holder");
+
+            JClass classType = ((JClass) cm._ref(Class.class)).narrow(cm.wildcard());
+            JArray groupsArray = JExpr.newArray(classType);
+            holderClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, classType.array(), "GROUPS", groupsArray);
+            // The pattern bean and the hierarchies are generated by every
+            // shard, the ones of the first shard are used
+            JClass firstShardHolder = cm.directClass(shardPackageName(0) + ".Holder");
+            holderClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, classType, "PATTERN_BEAN", firstShardHolder.staticRef("PATTERN_BEAN"));
+            holderClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, cm.ref(Object.class).array().array(), "PATTERN_SAMPLES", firstShardHolder.staticRef("PATTERN_SAMPLES"));
+            holderClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, classType.array(), "HIERARCHY_BEANS", firstShardHolder.staticRef("HIERARCHY_BEANS"));
+
+            JMethod createSuppliers = generateConcatenation(cm, holderClass, Generator.supplierType(cm), "Suppliers", "SUPPLIERS", tasks);
+            JMethod createValueAssigners = generateConcatenation(cm, holderClass, Generator.valueAssignerType(cm), "ValueAssigners", "VALUE_ASSIGNERS", tasks);
+            JMethod createArguments = generateConcatenation(cm, holderClass, Generator.argumentsType(cm), "Arguments", "ARGUMENTS", tasks);
+            JMethod createProperties = generateConcatenation(cm, holderClass, Generator.propertiesType(cm), "Properties", "PROPERTIES", tasks);
+            for (ShardTask task : tasks) {
+                for (int i = 0; i < Config.CFG.getNumGroups(); ++i) {
+                    groupsArray.add(JExpr.dotclass(cm.directClass(shardPackageName(task.shard) + ".groups.Group" + i)));
+                }
+            }
+
+            Generator.generateHolderPopulation(cm, holderClass, createSuppliers, createValueAssigners);
+            Generator.generateArrayField(holderClass, Generator.argumentsType(cm), "ARGUMENTS", createArguments);
+            Generator.generateArrayField(holderClass, Generator.propertiesType(cm), "PROPERTIES", createProperties);
+
+            File file = new File(Config.CFG.getOutputDir());
+            file.mkdirs();
+            cm.build(file, (PrintStream) null);
+        } catch (JClassAlreadyExistsException e) {
+            throw new RuntimeException("Error generating the holder class.", e);
+        } catch (IOException e) {
+            throw new RuntimeException("Error generating the java files", e);
+        }
+    }
+
+    /**
+     * Generates a static method returning the concatenation of a static array
+     * of every shard holder.
+     * 
+     * @param cm
+     *            The code model of the holder class.
+     * @param holderClass
+     *            The holder class being generated.
+     * @param elementType
+     *            The type of the elements of the arrays.
+     * @param name
+     *            The name used for the generated method.
+     * @param fieldName
+     *            The name of the array in the shard holders.
+     * @param tasks
+     *            The generated shards.
+     * @return The method returning the concatenated array.
+     */
+    private static JMethod generateConcatenation(JCodeModel cm, JDefinedClass holderClass, JClass elementType, String name, String fieldName, List<ShardTask> tasks) {
+        JClass arrayType = elementType.array();
+        JMethod create = holderClass.method(JMod.PRIVATE | JMod.STATIC, arrayType, "create" + name);
+        create.annotate(SuppressWarnings.class).param("value", "unchecked");
+        JBlock body = create.body();
+        JVar array = body.decl(arrayType, name.substring(0, 1).toLowerCase() + name.substring(1), JExpr.newArray(elementType.erasure(), Config.CFG.getNumBeans()));
+        for (ShardTask task : tasks) {
+            JClass shardHolder = cm.directClass(shardPackageName(task.shard) + ".Holder");
+            body.add(cm.ref(System.class).staticInvoke("arraycopy").arg(shardHolder.staticRef(fieldName)).arg(JExpr.lit(0)).arg(array).arg(JExpr.lit(task.firstBean)).arg(JExpr.lit(task.numBeans)));
+        }
+        body._return(array);
+        return create;
+    }
+
+    private static String shardPackageName(int shard) {
+        return Config.CFG.getBasePackageName() + ".shard" + shard;
+    }
+
+
+    /**
+     * Generates a single shard with the random stream bound to its index.
+     */
+    private static final class ShardTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int shard;
+        private final int firstBean;
+        private final int numBeans;
+
+        private ShardTask(int shard, int firstBean, int numBeans) {
+            this.shard = shard;
+            this.firstBean = firstBean;
+            this.numBeans = numBeans;
+        }
+
+        @Override
+        protected void compute() {
+            String shardPackageName = shardPackageName(shard);
+            Config.CFG.enterShard(shard);
+            try {
+                new Generator(shardPackageName, shardPackageName + ".beans", shardPackageName + ".groups", firstBean, numBeans).generateBeanGraph();
+            } finally {
+                Config.CFG.exitShard();
+            }
+        }
+
+    }
+
+}
@@ -18,10 +18,20 @@
  */
 package org.apache.bval.bench;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
 import com.sun.codemodel.JAnnotationArrayMember;
 import com.sun.codemodel.JAnnotationUse;
+import com.sun.codemodel.JArray;
+import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JExpr;
 import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JType;
 
 
@@ -38,19 +48,46 @@ public final class Util {
     }
 
     /**
-     * Calls the correct {@link JExpr} <code>lit</code> method.
+     * Calls the correct {@link JExpr} <code>lit</code> method, or builds the
+     * expression creating the value when it has no literal.
      * 
+     * @param cm
+     *            The code model the expression is generated in.
      * @param value
      *            The literal value that must be output in an expresion.
      * @return The matching expression for the real type of value.
      */
-    public static JExpression literalExpr(Object value) {
+    public static JExpression literalExpr(JCodeModel cm, Object value) {
         if (value == null) {
             return JExpr._null();
         } else if (value instanceof String) {
             return JExpr.lit((String) value);
         } else if (value instanceof Integer) {
             return JExpr.lit((Integer) value);
+        } else if (value instanceof BigDecimal) {
+            return JExpr._new(cm.ref(BigDecimal.class)).arg(JExpr.lit(value.toString()));
+        } else if (value instanceof Date) {
+            return JExpr._new(cm.ref(Date.class)).arg(JExpr.lit(((Date) value).getTime()));
+        } else if (value instanceof Calendar) {
+            Calendar calendar = (Calendar) value;
+            return JExpr._new(cm.ref(GregorianCalendar.class)).arg(JExpr.lit(calendar.get(Calendar.YEAR))).arg(JExpr.lit(calendar.get(Calendar.MONTH))).arg(JExpr.lit(calendar.get(Calendar.DAY_OF_MONTH)));
+        } else if (value instanceof LocalDate) {
+            LocalDate date = (LocalDate) value;
+            return cm.ref(LocalDate.class).staticInvoke("of").arg(JExpr.lit(date.getYear())).arg(JExpr.lit(date.getMonthValue())).arg(JExpr.lit(date.getDayOfMonth()));
+        } else if (value instanceof Enum<?>) {
+            return cm.ref(((Enum<?>) value).getDeclaringClass()).staticRef(((Enum<?>) value).name());
+        } else if (value instanceof int[]) {
+            JArray array = JExpr.newArray(cm.INT);
+            for (int element : (int[]) value) {
+                array.add(JExpr.lit(element));
+            }
+            return array;
+        } else if (value instanceof List<?>) {
+            JInvocation list = cm.ref(Arrays.class).staticInvoke("asList");
+            for (Object element : (List<?>) value) {
+                list.arg(literalExpr(cm, element));
+            }
+            return list;
         }
 
         throw new RuntimeException("Impossible to construct initial value for: " + value);
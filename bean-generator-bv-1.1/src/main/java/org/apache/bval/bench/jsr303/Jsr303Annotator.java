@@ -18,26 +18,40 @@
  */
 package org.apache.bval.bench.jsr303;
 
+import java.lang.annotation.Annotation;
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.math.BigDecimal;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import javax.validation.Constraint;
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 import javax.validation.Payload;
 import javax.validation.ReportAsSingleViolation;
 import javax.validation.Valid;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Digits;
+import javax.validation.constraints.Future;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Null;
+import javax.validation.constraints.Past;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
+import javax.validation.constraintvalidation.SupportedValidationTarget;
+import javax.validation.constraintvalidation.ValidationTarget;
 import org.apache.bval.bench.Config;
 import org.apache.bval.bench.metatree.AbstractMetaField;
 import org.apache.bval.bench.metatree.AnnotationType;
@@ -46,14 +60,17 @@ import org.apache.bval.bench.metatree.BasicType;
 import org.apache.bval.bench.metatree.JavaBeanBasicField;
 import org.apache.bval.bench.metatree.JavaBeanRefField;
 import org.apache.bval.bench.metatree.MetaAnnotation;
+import org.apache.bval.bench.metatree.MetaExecutable;
 import org.apache.bval.bench.metatree.MetaJavaBean;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.sun.codemodel.ClassType;
 import com.sun.codemodel.JAnnotationArrayMember;
+import com.sun.codemodel.JAnnotationUse;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JClassAlreadyExistsException;
 import com.sun.codemodel.JCodeModel;
@@ -71,9 +88,71 @@ import com.sun.codemodel.JMod;
  * @author Carlos Vara
  */
 public class Jsr303Annotator implements AnnotatorVisitor {
-    
+
+    /**
+     * The kind of message templates set on the built-in constraints.
+     */
+    public enum MessageStyle {
+        /**
+         * The historical messages: literals for <code>@NotNull</code>,
+         * parameters for <code>@Min</code> and <code>@Max</code>, the default
+         * message of the provider for the others.
+         */
+        DEFAULT,
+        /**
+         * Plain literals, nothing to interpolate.
+         */
+        LITERAL,
+        /**
+         * Constraint attributes such as <code>{value}</code> (literals for the
+         * constraints without attributes).
+         */
+        PARAMETER,
+        /**
+         * Expression language, such as <code>${validatedValue}</code>, and
+         * constraint attributes.
+         */
+        EL,
+        /**
+         * The resource bundle key of the default message of the constraint.
+         */
+        BUNDLE,
+        /**
+         * The four styles above in turn, constraint after constraint.
+         */
+        MIXED
+    }
+
+    /**
+     * The value accepted by the tree of composed constraints.
+     */
+    public static final String COMPOSED_VALID_VALUE = "goodgood";
+
+    /**
+     * The value rejected by every leaf of the tree of composed constraints.
+     */
+    public static final String COMPOSED_INVALID_VALUE = "";
+
+    // The values of the text fields
+    private static final String LONG_TEXT = longText(1024);
+
+    // 1970-01-01 and 2100-01-01, UTC
+    private static final long PAST_MILLIS = 0L;
+    private static final long FUTURE_MILLIS = 4102444800000L;
+
+    private static final List<Boolean> BOOLEANS = ImmutableList.of(true, false);
+    private static final List<Integer> SIZE_MINS = ImmutableList.of(1, 2, 4, 8);
+    private static final List<Integer> SIZE_MAXS = ImmutableList.of(8, 16, 32, 64);
+    private static final List<String> PATTERNS = ImmutableList.of("[a-z]+", "\\w+", "[a-z]{1,64}", ".+", "(good)+");
+
     // The code generator
-    private final JCodeModel codeModel;
+    protected final JCodeModel codeModel;
+
+    // The package of the generated constraints is derived from this one
+    protected final String basePackageName;
+
+    // The package of the generated groups
+    private final String groupsPackageName;
 
     // All the JSR-303 groups used by the annotator
     private final List<MetaGroup> groups;
@@ -86,14 +165,28 @@ public class Jsr303Annotator implements AnnotatorVisitor {
     
     // Available annotations for classes
     private final List<MetaAnnotation> classAnnotations;
+
+    // The cross-parameter constraint of the executables, built on first use
+    private MetaAnnotation crossParameterAnnotation;
+
+    // The composed constraints without validator of their own
+    private final Set<JClass> composedConstraints = Sets.newHashSet();
+
+    // The number of composed constraints of the tree
+    private int composedConstraintCount = 0;
+
+    // The number of messages set in the MIXED style
+    private int mixedMessages = 0;
     
     
     // State variables (they make this class thread-unsafe)
     private boolean addGroups = false;
 
 
-    public Jsr303Annotator(JCodeModel cm) {
+    public Jsr303Annotator(JCodeModel cm, String basePackageName, String groupsPackageName) {
         this.codeModel = cm;
+        this.basePackageName = basePackageName;
+        this.groupsPackageName = groupsPackageName;
         this.groups = generateGroups();
         this.basicTypeAnnotations = buildBasicTypeAnnotations();
         this.refFieldAnnotations = buildRefFieldAnnotations();
@@ -131,6 +224,13 @@ public class Jsr303Annotator implements AnnotatorVisitor {
         MetaAnnotation valid = new MetaAnnotation(codeModel, Valid.class, AnnotationType.JSR_303, new HashMap<String, Object>());
         jbrf.addAnnotation(valid);
 
+        // Back references stay null when there is no existing bean to
+        // reference, they only get cascaded, as the references left
+        // unconstrained by the configuration
+        if ( jbrf.isBackReference() || !Config.CFG.shouldConstrainRef() ) {
+            return;
+        }
+
         // And a random annotation
         MetaAnnotation annotCopy = new MetaAnnotation(Config.CFG.getRandom(refFieldAnnotations));
         if ( addGroups ) {
@@ -166,6 +266,48 @@ public class Jsr303Annotator implements AnnotatorVisitor {
         jbbf.setInvalidValues(mas.getInvalidValues());
     }
 
+    @Override
+    public void annotate(MetaExecutable me) {
+
+        // The parameters get the constraints of the fields they are assigned
+        // to, and the return value the ones of the returned field, except the
+        // composed constraints without validator: on an executable with
+        // parameters, they could apply to the parameters as well
+        List<JavaBeanBasicField> parameterFields = me.getParameterFields();
+        for (int i = 0; i < parameterFields.size(); ++i) {
+            for (MetaAnnotation ma : parameterFields.get(i).getAnnotations()) {
+                me.addParameterAnnotation(i, new MetaAnnotation(ma));
+            }
+        }
+        if ( me.getReturnedField() != null ) {
+            for (MetaAnnotation ma : me.getReturnedField().getAnnotations()) {
+                if ( !composedConstraints.contains(ma.getAnnotationClass()) ) {
+                    me.addAnnotation(new MetaAnnotation(ma));
+                }
+            }
+        }
+
+        // And all of them get a cross-parameter constraint
+        me.addAnnotation(getCrossParameterAnnotation());
+    }
+
+    
+    /**
+     * @return The list of groups that the annotator uses when assigning
+     *         constraints.
+     */
+    public List<MetaGroup> getGroups() {
+        return groups;
+    }
+
+    /**
+     * @return The sets of constraints available for every basic type, with
+     *         their valid and invalid values.
+     */
+    public ListMultimap<BasicType, Jsr303MetaAnnotationSet> getBasicTypeAnnotations() {
+        return basicTypeAnnotations;
+    }
+
     
     // Init methods ------------------------------------------------------------
 
@@ -176,7 +318,7 @@ public class Jsr303Annotator implements AnnotatorVisitor {
     private List<MetaGroup> generateGroups() {
         List<MetaGroup> groups = Lists.newArrayList();
         for (int i = 0; i < Config.CFG.getNumGroups(); ++i) {
-            MetaGroup mg = new MetaGroup(codeModel, Config.CFG.getGroupsPackageName() + ".Group" + i);
+            MetaGroup mg = new MetaGroup(codeModel, groupsPackageName + ".Group" + i);
             groups.add(mg);
         }
         return groups;
@@ -186,36 +328,37 @@ public class Jsr303Annotator implements AnnotatorVisitor {
      * @return A map of lists of annotation constraints available for every
      *         basic type.
      */
-    private ListMultimap<BasicType, Jsr303MetaAnnotationSet> buildBasicTypeAnnotations() {
+    protected ListMultimap<BasicType, Jsr303MetaAnnotationSet> buildBasicTypeAnnotations() {
 
         ListMultimap<BasicType, Jsr303MetaAnnotationSet> anns = ArrayListMultimap.create();
 
-        HashSet<MetaAnnotation> annotationsSet;
+        Set<MetaAnnotation> annotationsSet;
         HashMap<String, Object> annotParams;
         Jsr303MetaAnnotationSet maSet;
 
         // ### STRING ----------------------------------------------------------
 
         // @NotNull / "good" / null
-        annotationsSet = Sets.newHashSet();
+        annotationsSet = Sets.newLinkedHashSet();
         annotParams = Maps.newHashMap();
-        annotParams.put("message", "cannot be null");
+        putMessage(annotParams, NotNull.class, MessageStyle.LITERAL, "cannot be null", "cannot be null", "cannot be ${validatedValue}");
         annotationsSet.add(new MetaAnnotation(codeModel, NotNull.class, AnnotationType.JSR_303, annotParams));
         anns.put(BasicType.STRING, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) "good"), Lists.newArrayList((Object) null)));
 
         // [@NotNull, @Size(min=6,max=12)] / [ "goodgood" ] / [ null, "bad" ]
-        annotationsSet = Sets.newHashSet();
+        annotationsSet = Sets.newLinkedHashSet();
         annotParams = Maps.newHashMap();
-        annotParams.put("message", "cannot be null");
+        putMessage(annotParams, NotNull.class, MessageStyle.LITERAL, "cannot be null", "cannot be null", "cannot be ${validatedValue}");
         annotationsSet.add(new MetaAnnotation(codeModel, NotNull.class, AnnotationType.JSR_303, annotParams));
         annotParams = Maps.newHashMap();
+        putMessage(annotParams, Size.class, null, "has a wrong length", "size must be between {min} and {max}", "'${validatedValue}' must have between {min} and {max} characters");
         annotParams.put("min", 6);
         annotParams.put("max", 12);
         annotationsSet.add(new MetaAnnotation(codeModel, Size.class, AnnotationType.JSR_303, annotParams));
         anns.put(BasicType.STRING, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) "goodgood"), Lists.newArrayList((Object) null, "bad")));
         
         // @GoodCode
-        annotationsSet = Sets.newHashSet();
+        annotationsSet = Sets.newLinkedHashSet();
         annotParams = Maps.newHashMap();
         JDefinedClass goodCode = buildTemplateConstraint("GoodCode");
         goodCode.annotate(Constraint.class).paramArray("validatedBy");
@@ -224,6 +367,7 @@ public class Jsr303Annotator implements AnnotatorVisitor {
         sizes.annotate(Size.class).param("min", 5);
         sizes.annotate(Size.class).param("max", 8);
         goodCode.annotate(NotNull.class);
+        composedConstraints.add(goodCode);
         annotationsSet.add(new MetaAnnotation(goodCode, AnnotationType.JSR_303, annotParams));
         anns.put(BasicType.STRING, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) "goodcode", "1234123"), Lists.newArrayList((Object) null, "bad", "acodetoolong")));
 
@@ -231,22 +375,22 @@ public class Jsr303Annotator implements AnnotatorVisitor {
         // ### INTEGER & INT ---------------------------------------------------
 
         // @NotNull / 3 / null
-        annotationsSet = Sets.newHashSet();
+        annotationsSet = Sets.newLinkedHashSet();
         annotParams = Maps.newHashMap();
-        annotParams.put("message", "cannot be null");
+        putMessage(annotParams, NotNull.class, MessageStyle.LITERAL, "cannot be null", "cannot be null", "cannot be ${validatedValue}");
         annotationsSet.add(new MetaAnnotation(codeModel, NotNull.class, AnnotationType.JSR_303, annotParams));
         maSet = new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) 3), Lists.newArrayList((Object) null));
         anns.put(BasicType.INTEGER, maSet);
         // This one makes no sense for int
 
         // @Min(100) @Max(200) / [ 155, null ] / [ -100, 4000 ]
-        annotationsSet = Sets.newHashSet();
+        annotationsSet = Sets.newLinkedHashSet();
         annotParams = Maps.newHashMap();
-        annotParams.put("message", "must be bigger than {value}");
+        putMessage(annotParams, Min.class, MessageStyle.PARAMETER, "is too small", "must be bigger than {value}", "${validatedValue} is not bigger than {value}");
         annotParams.put("value", 100);
         annotationsSet.add(new MetaAnnotation(codeModel, Min.class, AnnotationType.JSR_303, annotParams));
         annotParams = Maps.newHashMap();
-        annotParams.put("message", "must be less than {value}");
+        putMessage(annotParams, Max.class, MessageStyle.PARAMETER, "is too big", "must be less than {value}", "${validatedValue} is not less than {value}");
         annotParams.put("value", 200);
         annotationsSet.add(new MetaAnnotation(codeModel, Max.class, AnnotationType.JSR_303, annotParams));
         maSet =  new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) 155, null), Lists.newArrayList((Object) (-100), 4000));
@@ -255,32 +399,230 @@ public class Jsr303Annotator implements AnnotatorVisitor {
         anns.put(BasicType.INT, maSet);
         
         // @RangedInt
-        annotationsSet = Sets.newHashSet();
+        annotationsSet = Sets.newLinkedHashSet();
         annotParams = Maps.newHashMap();
         JDefinedClass ranged = buildTemplateConstraint("RangedInt");
         ranged.annotate(Constraint.class).paramArray("validatedBy");
         ranged.annotate(Max.class).param("value", 3000);
         ranged.annotate(Min.class).param("value", 1000);
         ranged.annotate(ReportAsSingleViolation.class);
+        composedConstraints.add(ranged);
         annotationsSet.add(new MetaAnnotation(ranged, AnnotationType.JSR_303, annotParams));
         maSet = new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) 2500, 3000), Lists.newArrayList((Object) null, -20, 40000000));
         anns.put(BasicType.INTEGER, maSet);
         maSet.getInvalidValues().remove(null);
         anns.put(BasicType.INT, maSet);
 
+
+        // ### TEXT ------------------------------------------------------------
+
+        // @Pattern("[a-z ]+") / [ long text, null ] / [ long text ending with "!" ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotParams = Maps.newHashMap();
+        putMessage(annotParams, Pattern.class, null, "has a wrong format", "must match {regexp}", "'${validatedValue}' must match {regexp}");
+        annotParams.put("regexp", "[a-z ]+");
+        annotationsSet.add(new MetaAnnotation(codeModel, Pattern.class, AnnotationType.JSR_303, annotParams));
+        anns.put(BasicType.TEXT, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) LONG_TEXT, null), Lists.newArrayList((Object) (LONG_TEXT + "!"))));
+
+        // [@NotNull, @Size(min=256,max=4096)] / [ long text ] / [ null, "short" ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotParams = Maps.newHashMap();
+        putMessage(annotParams, NotNull.class, null, "cannot be null", "cannot be null", "cannot be ${validatedValue}");
+        annotationsSet.add(new MetaAnnotation(codeModel, NotNull.class, AnnotationType.JSR_303, annotParams));
+        annotParams = Maps.newHashMap();
+        putMessage(annotParams, Size.class, null, "has a wrong length", "size must be between {min} and {max}", "'${validatedValue}' must have between {min} and {max} characters");
+        annotParams.put("min", 256);
+        annotParams.put("max", 4096);
+        annotationsSet.add(new MetaAnnotation(codeModel, Size.class, AnnotationType.JSR_303, annotParams));
+        anns.put(BasicType.TEXT, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) LONG_TEXT), Lists.newArrayList((Object) null, "short")));
+
+
+        // ### PATTERNED -------------------------------------------------------
+
+        // @Pattern(<regexp>) / [ value of a length ] / [ invalid value of the same length ]
+        for (RegexPattern pattern : RegexPattern.values()) {
+            if (!Config.CFG.getPatternComplexityNames().contains(pattern.getComplexity().name())) {
+                continue;
+            }
+            annotationsSet = Sets.newLinkedHashSet();
+            annotParams = Maps.newHashMap();
+            putMessage(annotParams, Pattern.class, null, "has a wrong format", "must match {regexp}", "'${validatedValue}' must match {regexp}");
+            annotParams.put("regexp", pattern.getRegexp());
+            annotationsSet.add(new MetaAnnotation(codeModel, Pattern.class, AnnotationType.JSR_303, annotParams));
+            for (Integer length : pattern.getLengths()) {
+                anns.put(BasicType.PATTERNED, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) pattern.validValue(length)), Lists.newArrayList((Object) pattern.invalidValue(length))));
+            }
+        }
+
+
+        // ### BIG_DECIMAL -----------------------------------------------------
+
+        // @Digits(integer=5,fraction=2) / [ 12345.67, 0.5, null ] / [ 123456.7, 1.234 ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotParams = Maps.newHashMap();
+        putMessage(annotParams, Digits.class, null, "has too many digits", "must have at most {integer} integer and {fraction} fraction digits", "${validatedValue} has more than {integer} integer or {fraction} fraction digits");
+        annotParams.put("integer", 5);
+        annotParams.put("fraction", 2);
+        annotationsSet.add(new MetaAnnotation(codeModel, Digits.class, AnnotationType.JSR_303, annotParams));
+        anns.put(BasicType.BIG_DECIMAL, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) new BigDecimal("12345.67"), new BigDecimal("0.5"), null), Lists.newArrayList((Object) new BigDecimal("123456.7"), new BigDecimal("1.234"))));
+
+        // [@NotNull, @DecimalMin("0.00"), @DecimalMax("1000.00")] / [ 999.99 ] / [ null, -0.01, 1000.01 ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotParams = Maps.newHashMap();
+        putMessage(annotParams, NotNull.class, null, "cannot be null", "cannot be null", "cannot be ${validatedValue}");
+        annotationsSet.add(new MetaAnnotation(codeModel, NotNull.class, AnnotationType.JSR_303, annotParams));
+        annotParams = Maps.newHashMap();
+        putMessage(annotParams, DecimalMin.class, null, "is too small", "must be at least {value}", "${validatedValue} is less than {value}");
+        annotParams.put("value", "0.00");
+        annotationsSet.add(new MetaAnnotation(codeModel, DecimalMin.class, AnnotationType.JSR_303, annotParams));
+        annotParams = Maps.newHashMap();
+        putMessage(annotParams, DecimalMax.class, null, "is too big", "must be at most {value}", "${validatedValue} is more than {value}");
+        annotParams.put("value", "1000.00");
+        annotationsSet.add(new MetaAnnotation(codeModel, DecimalMax.class, AnnotationType.JSR_303, annotParams));
+        anns.put(BasicType.BIG_DECIMAL, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) new BigDecimal("999.99")), Lists.newArrayList((Object) null, new BigDecimal("-0.01"), new BigDecimal("1000.01"))));
+
+
+        // ### DATE & CALENDAR -------------------------------------------------
+
+        // @Past / [ 1970-01-01, null ] / [ 2100-01-01 ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotParams = Maps.newHashMap();
+        putMessage(annotParams, Past.class, null, "must be in the past", "must be in the past", "${validatedValue} is not in the past");
+        annotationsSet.add(new MetaAnnotation(codeModel, Past.class, AnnotationType.JSR_303, annotParams));
+        anns.put(BasicType.DATE, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) new Date(PAST_MILLIS), null), Lists.newArrayList((Object) new Date(FUTURE_MILLIS))));
+        anns.put(BasicType.CALENDAR, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) calendar(PAST_MILLIS), null), Lists.newArrayList((Object) calendar(FUTURE_MILLIS))));
+
+        // [@NotNull, @Future] / [ 2100-01-01 ] / [ null, 1970-01-01 ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotParams = Maps.newHashMap();
+        putMessage(annotParams, NotNull.class, null, "cannot be null", "cannot be null", "cannot be ${validatedValue}");
+        annotationsSet.add(new MetaAnnotation(codeModel, NotNull.class, AnnotationType.JSR_303, annotParams));
+        annotParams = Maps.newHashMap();
+        putMessage(annotParams, Future.class, null, "must be in the future", "must be in the future", "${validatedValue} is not in the future");
+        annotationsSet.add(new MetaAnnotation(codeModel, Future.class, AnnotationType.JSR_303, annotParams));
+        anns.put(BasicType.DATE, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) new Date(FUTURE_MILLIS)), Lists.newArrayList((Object) null, new Date(PAST_MILLIS))));
+        anns.put(BasicType.CALENDAR, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) calendar(FUTURE_MILLIS)), Lists.newArrayList((Object) null, calendar(PAST_MILLIS))));
+
+
+        // ### ENUM ------------------------------------------------------------
+
+        // @NotNull / [ SECONDS ] / [ null ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotParams = Maps.newHashMap();
+        putMessage(annotParams, NotNull.class, null, "cannot be null", "cannot be null", "cannot be ${validatedValue}");
+        annotationsSet.add(new MetaAnnotation(codeModel, NotNull.class, AnnotationType.JSR_303, annotParams));
+        anns.put(BasicType.ENUM, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) TimeUnit.SECONDS), Lists.newArrayList((Object) null)));
+
+
+        // ### INT_ARRAY & INTEGER_LIST ----------------------------------------
+
+        // [@NotNull, @Size(min=1,max=8)] / [ {1, 2, 3} ] / [ null, {}, {0, ..., 9} ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotParams = Maps.newHashMap();
+        putMessage(annotParams, NotNull.class, null, "cannot be null", "cannot be null", "cannot be ${validatedValue}");
+        annotationsSet.add(new MetaAnnotation(codeModel, NotNull.class, AnnotationType.JSR_303, annotParams));
+        annotParams = Maps.newHashMap();
+        putMessage(annotParams, Size.class, null, "has a wrong size", "size must be between {min} and {max}", "${validatedValue} must have between {min} and {max} elements");
+        annotParams.put("min", 1);
+        annotParams.put("max", 8);
+        annotationsSet.add(new MetaAnnotation(codeModel, Size.class, AnnotationType.JSR_303, annotParams));
+        anns.put(BasicType.INT_ARRAY, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) new int[] { 1, 2, 3 }), Lists.newArrayList((Object) null, new int[0], new int[10])));
+        anns.put(BasicType.INTEGER_LIST, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) ImmutableList.of(1, 2, 3)), Lists.newArrayList((Object) null, ImmutableList.of(), ImmutableList.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9))));
+
+
+        // ### COMPOSED CONSTRAINT TREE ----------------------------------------
+
+        // A random tree of the configured depth / [ "goodgood", null ] / [ "" ]
+        if (Config.CFG.getCompositionDepth() > 0) {
+            JDefinedClass tree = buildComposedConstraintTree(Config.CFG.getCompositionDepth());
+            composedConstraints.add(tree);
+            annotationsSet = Sets.newLinkedHashSet();
+            annotParams = Maps.newHashMap();
+            annotationsSet.add(new MetaAnnotation(tree, AnnotationType.JSR_303, annotParams));
+            anns.put(BasicType.STRING, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) COMPOSED_VALID_VALUE, null), Lists.newArrayList((Object) COMPOSED_INVALID_VALUE)));
+        }
+
         return anns;
     }
+
+    private static String longText(int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            text.append("lorem ipsum dolor sit amet ");
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+
+    private static Calendar calendar(long millis) {
+        Calendar calendar = new GregorianCalendar();
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+
+    /**
+     * Builds a random tree of composed constraints without validator of their
+     * own, each composing {@link Config#getCompositionWidth()} constraints:
+     * <code>@Size</code> and <code>@Pattern</code> leaves, which accept
+     * {@link #COMPOSED_VALID_VALUE} and reject
+     * {@link #COMPOSED_INVALID_VALUE}, or composed constraints of a lower
+     * depth. The first constraint of a node of depth <code>n &gt; 1</code> is
+     * a composed constraint of depth <code>n - 1</code>, so that the tree has
+     * the requested depth.
+     * 
+     * @param depth
+     *            The depth of the tree, 1 for a single composed constraint.
+     * @return The root of the tree.
+     */
+    private JDefinedClass buildComposedConstraintTree(int depth) {
+        JDefinedClass composed = buildTemplateConstraint("Composed" + composedConstraintCount++);
+        composed.annotate(Constraint.class).paramArray("validatedBy");
+        if (Config.CFG.shouldReportAsSingleViolation()) {
+            composed.annotate(ReportAsSingleViolation.class);
+        }
+
+        JAnnotationArrayMember sizes = null;
+        JAnnotationArrayMember patterns = null;
+        for (int i = 0; i < Config.CFG.getCompositionWidth(); ++i) {
+            if (depth > 1 && (i == 0 || Config.CFG.getRandom(BOOLEANS))) {
+                int childDepth = depth - 1;
+                if (i > 0) {
+                    List<Integer> lowerDepths = Lists.newArrayList();
+                    for (int d = 1; d < depth; ++d) {
+                        lowerDepths.add(d);
+                    }
+                    childDepth = Config.CFG.getRandom(lowerDepths);
+                }
+                composed.annotate(buildComposedConstraintTree(childDepth));
+            } else if (Config.CFG.getRandom(BOOLEANS)) {
+                if (sizes == null) {
+                    sizes = composed.annotate(Size.List.class).paramArray("value");
+                }
+                JAnnotationUse size = sizes.annotate(Size.class);
+                size.param("min", Config.CFG.getRandom(SIZE_MINS));
+                size.param("max", Config.CFG.getRandom(SIZE_MAXS));
+            } else {
+                if (patterns == null) {
+                    patterns = composed.annotate(Pattern.List.class).paramArray("value");
+                }
+                patterns.annotate(Pattern.class).param("regexp", Config.CFG.getRandom(PATTERNS));
+            }
+        }
+        return composed;
+    }
     
     /**
      * @return The list of constraints for fields that reference other beans.
      */
-    private List<MetaAnnotation> buildRefFieldAnnotations() {
+    protected List<MetaAnnotation> buildRefFieldAnnotations() {
         List<MetaAnnotation> anns = Lists.newArrayList();
         HashMap<String, Object> annotParams;
         
         annotParams = Maps.newHashMap();
+        putMessage(annotParams, NotNull.class, null, "cannot be null", "cannot be null", "cannot be ${validatedValue}");
         anns.add(new MetaAnnotation(codeModel, NotNull.class, AnnotationType.JSR_303, annotParams));
         annotParams = Maps.newHashMap();
+        putMessage(annotParams, Null.class, null, "must be null", "must be null", "must be null instead of ${validatedValue}");
         anns.add(new MetaAnnotation(codeModel, Null.class, AnnotationType.JSR_303, annotParams));
         return anns;
     }
@@ -289,7 +631,7 @@ public class Jsr303Annotator implements AnnotatorVisitor {
      * @return A list of the class level annotations that the annotator will
      *         use.
      */
-    private List<MetaAnnotation> buildClassAnnotations() {
+    protected List<MetaAnnotation> buildClassAnnotations() {
 
         List<MetaAnnotation> anns = Lists.newArrayList();
         HashMap<String, Object> annotParams;
@@ -308,7 +650,73 @@ public class Jsr303Annotator implements AnnotatorVisitor {
     }
     
     
-    private JMethod getIsValidMethod(JDefinedClass alwaysValidValidator) {
+    /**
+     * Sets the message of a built-in constraint, according to the
+     * {@link MessageStyle} of {@link Config#getMessageStyle()}.
+     * 
+     * @param annotParams
+     *            The parameters of the constraint.
+     * @param constraint
+     *            The constraint.
+     * @param defaultStyle
+     *            The style of the {@link MessageStyle#DEFAULT} message, or
+     *            <code>null</code> to keep the default message of the
+     *            provider.
+     * @param literal
+     *            The {@link MessageStyle#LITERAL} message.
+     * @param parameter
+     *            The {@link MessageStyle#PARAMETER} message.
+     * @param el
+     *            The {@link MessageStyle#EL} message.
+     */
+    private void putMessage(Map<String, Object> annotParams, Class<? extends Annotation> constraint, MessageStyle defaultStyle, String literal, String parameter, String el) {
+        MessageStyle style = MessageStyle.valueOf(Config.CFG.getMessageStyle());
+        if (style == MessageStyle.DEFAULT) {
+            style = defaultStyle;
+        } else if (style == MessageStyle.MIXED) {
+            style = MessageStyle.values()[MessageStyle.LITERAL.ordinal() + mixedMessages++ % 4];
+        }
+        if (style == null) {
+            return;
+        }
+        switch (style) {
+        case LITERAL:
+            annotParams.put("message", literal);
+            break;
+        case PARAMETER:
+            annotParams.put("message", parameter);
+            break;
+        case EL:
+            annotParams.put("message", el);
+            break;
+        default:
+            annotParams.put("message", "{" + constraint.getName() + ".message}");
+        }
+    }
+
+    private MetaAnnotation getCrossParameterAnnotation() {
+        if ( crossParameterAnnotation == null ) {
+            crossParameterAnnotation = buildCrossParameterAnnotation();
+        }
+        return crossParameterAnnotation;
+    }
+
+    /**
+     * @return The cross-parameter constraint of the executables, validated by
+     *         a validator always returning <code>true</code>.
+     */
+    protected MetaAnnotation buildCrossParameterAnnotation() {
+        JDefinedClass alwaysValidParameters = buildTemplateConstraint("AlwaysValidParameters");
+        JDefinedClass alwaysValidParametersValidator = buildTemplateConstraintValidator("AlwaysValidParametersValidator", alwaysValidParameters, Object[].class);
+        alwaysValidParametersValidator.annotate(SupportedValidationTarget.class).param("value", ValidationTarget.PARAMETERS);
+        JMethod isValid = getIsValidMethod(alwaysValidParametersValidator);
+        isValid.body()._return(JExpr.TRUE);
+        alwaysValidParameters.annotate(Constraint.class).param("validatedBy", alwaysValidParametersValidator);
+        return new MetaAnnotation(alwaysValidParameters, AnnotationType.JSR_303, new HashMap<String, Object>());
+    }
+
+
+    protected JMethod getIsValidMethod(JDefinedClass alwaysValidValidator) {
         for ( JMethod method : alwaysValidValidator.methods() ) {
             if ( method.name().equals("isValid") ) {
                 return method;
@@ -318,12 +726,12 @@ public class Jsr303Annotator implements AnnotatorVisitor {
     }
 
 
-    private JDefinedClass buildTemplateConstraint(String name) {
+    protected JDefinedClass buildTemplateConstraint(String name) {
         try {
-            JDefinedClass tplConstraint = codeModel._class(Config.CFG.getBasePackageName() + ".annot."+name, ClassType.ANNOTATION_TYPE_DECL);
+            JDefinedClass tplConstraint = codeModel._class(basePackageName + ".annot."+name, ClassType.ANNOTATION_TYPE_DECL);
             tplConstraint.annotate(Documented.class);
             tplConstraint.annotate(Retention.class).param("value", RetentionPolicy.RUNTIME);
-            tplConstraint.annotate(Target.class).paramArray("value").param(ElementType.TYPE).param(ElementType.ANNOTATION_TYPE).param(ElementType.FIELD).param(ElementType.METHOD);
+            tplConstraint.annotate(Target.class).paramArray("value").param(ElementType.TYPE).param(ElementType.ANNOTATION_TYPE).param(ElementType.FIELD).param(ElementType.METHOD).param(ElementType.CONSTRUCTOR).param(ElementType.PARAMETER);
             
             // Using direct as I don't know how to build default { } with code model
             tplConstraint.direct("\n" + "    Class<?>[] groups() default {};\n" + "    String message() default \"Invalid value\";\n" + "    Class<? extends Payload>[] payload() default {};\n");
@@ -337,7 +745,7 @@ public class Jsr303Annotator implements AnnotatorVisitor {
         }
     }
     
-    private JDefinedClass buildTemplateConstraintValidator(String name, JDefinedClass constraint, Class<?> param) {
+    protected JDefinedClass buildTemplateConstraintValidator(String name, JDefinedClass constraint, Class<?> param) {
         try {
             JClass cv = (JClass) codeModel._ref(ConstraintValidator.class);
             cv = cv.narrow(constraint, (JClass) codeModel._ref(param));
@@ -345,7 +753,7 @@ public class Jsr303Annotator implements AnnotatorVisitor {
             validator._implements(cv);
             validator.method(JMod.PUBLIC, void.class, "initialize").param(constraint, "parameters");
             JMethod isValid = validator.method(JMod.PUBLIC, boolean.class, "isValid");
-            isValid.param(Object.class, "value");
+            isValid.param(param, "value");
             isValid.param(ConstraintValidatorContext.class, "context");
             return validator;
         } catch (JClassAlreadyExistsException e) {
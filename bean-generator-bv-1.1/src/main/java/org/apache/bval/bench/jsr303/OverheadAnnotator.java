@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.jsr303;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.validation.Constraint;
+import javax.validation.constraintvalidation.SupportedValidationTarget;
+import javax.validation.constraintvalidation.ValidationTarget;
+import org.apache.bval.bench.Config;
+import org.apache.bval.bench.metatree.AnnotationType;
+import org.apache.bval.bench.metatree.BasicType;
+import org.apache.bval.bench.metatree.MetaAnnotation;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JVar;
+
+
+/**
+ * A {@link Jsr303Annotator} that swaps every constraint for a generated
+ * trivial one, whose validator costs the same whatever the validated value
+ * (see {@link Mode}). The beans keep the same number of constraints per
+ * element, the same groups and the same values, so that the validation time
+ * can be attributed to the provider (dispatch, context creation, violation
+ * building) rather than to the logic of the built-in constraints.
+ * <p>
+ * The n-th constraint of an element is swapped for <code>TrivialN</code>, as
+ * an element cannot be annotated twice with the same constraint.
+ * <p>
+ * NOTE: Class is not thread-safe.
+ */
+public class OverheadAnnotator extends Jsr303Annotator {
+
+    /**
+     * The result of the trivial validators.
+     */
+    public enum Mode {
+        /**
+         * The real constraints, no {@link OverheadAnnotator} is used.
+         */
+        NONE,
+        /**
+         * The validators return <code>true</code>.
+         */
+        TRUE,
+        /**
+         * The validators return <code>false</code>: every constraint is
+         * violated.
+         */
+        FALSE,
+        /**
+         * The validators spin for {@link Config#getOverheadBusyNanos()}
+         * nanoseconds and return <code>true</code>.
+         */
+        BUSY
+    }
+
+
+    public OverheadAnnotator(JCodeModel cm, String basePackageName, String groupsPackageName) {
+        super(cm, basePackageName, groupsPackageName);
+    }
+
+
+    // The tables are built by the constructor of Jsr303Annotator, so they do
+    // not use any field of this class
+
+    @Override
+    protected ListMultimap<BasicType, Jsr303MetaAnnotationSet> buildBasicTypeAnnotations() {
+        ListMultimap<BasicType, Jsr303MetaAnnotationSet> anns = ArrayListMultimap.create();
+        for (Map.Entry<BasicType, Jsr303MetaAnnotationSet> entry : super.buildBasicTypeAnnotations().entries()) {
+            Jsr303MetaAnnotationSet mas = entry.getValue();
+            Set<MetaAnnotation> annotationsSet = Sets.newLinkedHashSet();
+            for (int i = 0; i < mas.getAnnotations().size(); ++i) {
+                annotationsSet.add(trivialAnnotation(i));
+            }
+            anns.put(entry.getKey(), new Jsr303MetaAnnotationSet(annotationsSet, mas.getValidValues(), mas.getInvalidValues()));
+        }
+        return anns;
+    }
+
+    @Override
+    protected List<MetaAnnotation> buildRefFieldAnnotations() {
+        List<MetaAnnotation> anns = Lists.newArrayList();
+        for (int i = super.buildRefFieldAnnotations().size(); i > 0; --i) {
+            anns.add(trivialAnnotation(0));
+        }
+        return anns;
+    }
+
+    @Override
+    protected List<MetaAnnotation> buildClassAnnotations() {
+        List<MetaAnnotation> anns = Lists.newArrayList();
+        for (int i = super.buildClassAnnotations().size(); i > 0; --i) {
+            anns.add(trivialAnnotation(0));
+        }
+        return anns;
+    }
+
+    @Override
+    protected MetaAnnotation buildCrossParameterAnnotation() {
+        JDefinedClass trivialParameters = buildTemplateConstraint("TrivialParameters");
+        JDefinedClass trivialParametersValidator = buildTemplateConstraintValidator("TrivialParametersValidator", trivialParameters, Object[].class);
+        trivialParametersValidator.annotate(SupportedValidationTarget.class).param("value", ValidationTarget.PARAMETERS);
+        generateIsValidBody(trivialParametersValidator);
+        trivialParameters.annotate(Constraint.class).param("validatedBy", trivialParametersValidator);
+        return new MetaAnnotation(trivialParameters, AnnotationType.JSR_303, new HashMap<String, Object>());
+    }
+
+
+    /**
+     * @param index
+     *            The index of the constraint on its element.
+     * @return A new use of the <code>TrivialN</code> constraint, generated on
+     *         first use.
+     */
+    private MetaAnnotation trivialAnnotation(int index) {
+        String name = "Trivial" + index;
+        JDefinedClass trivial = codeModel._getClass(basePackageName + ".annot." + name);
+        if ( trivial == null ) {
+            trivial = buildTemplateConstraint(name);
+            JDefinedClass trivialValidator = buildTemplateConstraintValidator(name + "Validator", trivial, Object.class);
+            generateIsValidBody(trivialValidator);
+            trivial.annotate(Constraint.class).param("validatedBy", trivialValidator);
+        }
+        return new MetaAnnotation(trivial, AnnotationType.JSR_303, new HashMap<String, Object>());
+    }
+
+    private void generateIsValidBody(JDefinedClass validator) {
+        JBlock body = getIsValidMethod(validator).body();
+        switch (Mode.valueOf(Config.CFG.getOverheadMode())) {
+        case FALSE:
+            body._return(JExpr.FALSE);
+            break;
+        case BUSY:
+            JExpression nanoTime = codeModel.ref(System.class).staticInvoke("nanoTime");
+            JVar end = body.decl(codeModel.LONG, "end", nanoTime.plus(JExpr.lit(Config.CFG.getOverheadBusyNanos())));
+            body._while(nanoTime.lt(end));
+            body._return(JExpr.TRUE);
+            break;
+        default:
+            body._return(JExpr.TRUE);
+        }
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.jsr303;
+
+import java.util.List;
+import org.apache.bval.bench.Config;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+
+/**
+ * The library of regular expressions of the <code>@Pattern</code>
+ * constraints, from the simplest to the pathological ones, with the valid and
+ * invalid values of a given length for each of them.
+ * <p>
+ * The invalid values only differ from the valid ones at their end, so that
+ * the whole value is read before the match fails. The values have the
+ * requested length, which must be between the minimum and the maximum length
+ * of their format: the lengths of the configuration out of these bounds are
+ * not generated.
+ */
+public enum RegexPattern {
+
+    ALPHA(Complexity.SIMPLE, "[a-z]+", 1, Integer.MAX_VALUE) {
+        @Override
+        public String validValue(int length) {
+            return repeat("a", length);
+        }
+
+        @Override
+        public String invalidValue(int length) {
+            return repeat("a", length - 1) + "1";
+        }
+    },
+    EMAIL(Complexity.MEDIUM, "[a-z0-9._%+-]+@[a-z0-9.-]+\\.[a-z]{2,}", 13, Integer.MAX_VALUE) {
+        @Override
+        public String validValue(int length) {
+            return repeat("a", length - 12) + "@example.com";
+        }
+
+        @Override
+        public String invalidValue(int length) {
+            return repeat("a", length - 12) + "@example.c0m";
+        }
+    },
+    /**
+     * A fixed length format, whose values only have its length.
+     */
+    UUID(Complexity.MEDIUM, "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}", 36, 36) {
+        @Override
+        public String validValue(int length) {
+            return "123e4567-e89b-12d3-a456-426614174000";
+        }
+
+        @Override
+        public String invalidValue(int length) {
+            return "123e4567-e89b-12d3-a456-42661417400g";
+        }
+    },
+    IBAN(Complexity.COMPLEX, "[A-Z]{2}[0-9]{2}( ?[A-Z0-9]{4}){2,7}( ?[A-Z0-9]{1,3})?", 12, 43) {
+        @Override
+        public String validValue(int length) {
+            // The country and check digits, then as many groups of 4
+            // characters as possible, each with a leading space if possible,
+            // then a rest of up to 4 characters
+            int remaining = length - 4;
+            int groups = Math.max(2, remaining / 5);
+            int spaces = Math.min(groups, remaining - 4 * groups);
+            int rest = remaining - 4 * groups - spaces;
+            StringBuilder value = new StringBuilder("DE89");
+            for (int i = 0; i < groups; ++i) {
+                value.append(i < spaces ? " " : "").append("3704");
+            }
+            if (rest > 0) {
+                value.append(rest > 1 ? " " : "").append(repeat("0", rest > 1 ? rest - 1 : rest));
+            }
+            return value.toString();
+        }
+
+        @Override
+        public String invalidValue(int length) {
+            String valid = validValue(length);
+            return valid.substring(0, valid.length() - 1) + "!";
+        }
+    },
+    URL(Complexity.COMPLEX, "https?://([a-z0-9-]+\\.)+[a-z]{2,}(/[a-zA-Z0-9._~-]*)*", 24, Integer.MAX_VALUE) {
+        @Override
+        public String validValue(int length) {
+            String prefix = "https://www.example.com/";
+            return prefix + repeat("a", length - prefix.length());
+        }
+
+        @Override
+        public String invalidValue(int length) {
+            String valid = validValue(length);
+            return valid.substring(0, valid.length() - 1) + " ";
+        }
+    },
+    /**
+     * A nested quantifier, whose match takes an exponential time in the
+     * length of the invalid values. The back reference keeps the regular
+     * expression engine of JDK 9 and later from memoizing the loop, which
+     * makes the match of <code>(a+)+b</code> alone linear.
+     */
+    BACKTRACKING(Complexity.BACKTRACKING, "(a+)+b\\1?", 2, Integer.MAX_VALUE) {
+        @Override
+        public String validValue(int length) {
+            return repeat("a", length - 1) + "b";
+        }
+
+        @Override
+        public String invalidValue(int length) {
+            return repeat("a", length);
+        }
+    };
+
+
+    /**
+     * The complexity of a regular expression.
+     */
+    public enum Complexity {
+        /**
+         * A single character class.
+         */
+        SIMPLE,
+        /**
+         * A sequence of character classes.
+         */
+        MEDIUM,
+        /**
+         * Groups, optional parts and alternatives.
+         */
+        COMPLEX,
+        /**
+         * Catastrophic backtracking on the invalid values.
+         */
+        BACKTRACKING
+    }
+
+
+    private final Complexity complexity;
+
+    private final String regexp;
+
+    private final int minLength;
+
+    private final int maxLength;
+
+
+    private RegexPattern(Complexity complexity, String regexp, int minLength, int maxLength) {
+        this.complexity = complexity;
+        this.regexp = regexp;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+    }
+
+
+    public Complexity getComplexity() {
+        return complexity;
+    }
+
+    public String getRegexp() {
+        return regexp;
+    }
+
+    /**
+     * @param length
+     *            The requested length.
+     * @return A value matching the regular expression.
+     */
+    public abstract String validValue(int length);
+
+    /**
+     * @param length
+     *            The requested length.
+     * @return A value not matching the regular expression, but for its end.
+     */
+    public abstract String invalidValue(int length);
+
+    /**
+     * @return The lengths of the generated values, drawn at random for the
+     *         <code>PATTERNED</code> fields: the length of a fixed length
+     *         format, or else the lengths of the configuration between the
+     *         minimum and the maximum length of the format.
+     */
+    public List<Integer> getLengths() {
+        if (minLength == maxLength) {
+            return ImmutableList.of(minLength);
+        }
+        List<Integer> lengths = Lists.newArrayList();
+        for (Integer length : complexity == Complexity.BACKTRACKING ? Config.CFG.getBacktrackingPatternLengths() : Config.CFG.getPatternLengths()) {
+            if (length >= minLength && length <= maxLength) {
+                lengths.add(length);
+            }
+        }
+        return lengths;
+    }
+
+    /**
+     * @return The name of the property of the generated
+     *         <code>PatternBean</code> constrained by the regular expression.
+     */
+    public String getPropertyName() {
+        return name().toLowerCase();
+    }
+
+
+    private static String repeat(String s, int count) {
+        StringBuilder repeated = new StringBuilder();
+        for (int i = 0; i < count; ++i) {
+            repeated.append(s);
+        }
+        return repeated.toString();
+    }
+
+}
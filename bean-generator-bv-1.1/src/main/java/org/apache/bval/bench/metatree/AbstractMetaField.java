@@ -18,9 +18,13 @@
  */
 package org.apache.bval.bench.metatree;
 
+import java.lang.annotation.Annotation;
 import java.util.Set;
+import org.apache.bval.bench.Config;
 import com.google.common.collect.Sets;
+import com.sun.codemodel.JAnnotatable;
 import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMethod;
 
 
 /**
@@ -34,7 +38,7 @@ public abstract class AbstractMetaField implements Annotable {
     protected JFieldVar generatedField;
 
     // The set of annotations for this field
-    protected Set<MetaAnnotation> annotations = Sets.newHashSet();
+    protected Set<MetaAnnotation> annotations = Sets.newLinkedHashSet();
 
     // The name of the field
     private String name;
@@ -42,11 +46,44 @@ public abstract class AbstractMetaField implements Annotable {
     // The owner of this field
     private MetaJavaBean owner;
 
+    // Whether the annotations are placed on the field rather than on its
+    // getter
+    private boolean onField;
+
     public AbstractMetaField(MetaJavaBean owner, String name) {
         this.owner = owner;
         this.name = name;
     }
 
+    /**
+     * Decides whether the annotations of this field are placed on the field
+     * or on its getter, according to {@link Config#getConstraintPlacement()}.
+     * Called by the constructors of the fields supporting both placements,
+     * the other ones keeping their annotations on the getter.
+     */
+    protected void placeAnnotations() {
+        switch (ConstraintPlacement.valueOf(Config.CFG.getConstraintPlacement())) {
+        case FIELD:
+            onField = true;
+            break;
+        case MIXED:
+            onField = Config.CFG.shouldPlaceOnField();
+            break;
+        default:
+            onField = false;
+        }
+    }
+
+    /**
+     * @param getter
+     *            The getter of this field.
+     * @return The element on which the annotations of this field are
+     *         generated: the field itself or its getter.
+     */
+    protected JAnnotatable getAnnotatedElement(JMethod getter) {
+        return onField ? generatedField : getter;
+    }
+
     public JFieldVar getGeneratedField() {
         return generatedField;
     }
@@ -59,4 +96,26 @@ public abstract class AbstractMetaField implements Annotable {
         return owner;
     }
 
+    /**
+     * @return The annotations of this field.
+     */
+    public Set<MetaAnnotation> getAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * @param annotationClass
+     *            The class of the annotation to look for.
+     * @return <code>true</code> if the field is annotated with the given
+     *         annotation, whatever its parameters.
+     */
+    public boolean hasAnnotation(Class<? extends Annotation> annotationClass) {
+        for (MetaAnnotation annot : annotations) {
+            if (annot.getAnnotationClass().fullName().equals(annotationClass.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
@@ -26,6 +26,7 @@ package org.apache.bval.bench.metatree;
 public enum AnnotationType {
 
     JSR_303,
+    JSR_380,
     OTHER;
     
 }
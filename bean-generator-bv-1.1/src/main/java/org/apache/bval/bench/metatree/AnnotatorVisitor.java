@@ -34,4 +34,6 @@ public interface AnnotatorVisitor {
 
     void annotate(MetaJavaBean mjb);
 
+    void annotate(MetaExecutable me);
+
 }
@@ -18,8 +18,16 @@
  */
 package org.apache.bval.bench.metatree;
 
-import java.util.Arrays;
+import java.math.BigDecimal;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.apache.bval.bench.Config;
+import com.google.common.collect.Lists;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JType;
 
 
 /**
@@ -46,13 +54,91 @@ public enum BasicType {
         public Class<?> getTypeClass() {
             return int.class;
         }
+    },
+    /**
+     * Long strings, for the regular expressions.
+     */
+    TEXT {
+        @Override
+        public Class<?> getTypeClass() {
+            return String.class;
+        }
+    },
+    /**
+     * Strings of the formats of the
+     * {@link org.apache.bval.bench.jsr303.RegexPattern regular expressions}.
+     */
+    PATTERNED {
+        @Override
+        public Class<?> getTypeClass() {
+            return String.class;
+        }
+    },
+    BIG_DECIMAL {
+        @Override
+        public Class<?> getTypeClass() {
+            return BigDecimal.class;
+        }
+    },
+    DATE {
+        @Override
+        public Class<?> getTypeClass() {
+            return Date.class;
+        }
+    },
+    CALENDAR {
+        @Override
+        public Class<?> getTypeClass() {
+            return Calendar.class;
+        }
+    },
+    ENUM {
+        @Override
+        public Class<?> getTypeClass() {
+            return TimeUnit.class;
+        }
+    },
+    INT_ARRAY {
+        @Override
+        public Class<?> getTypeClass() {
+            return int[].class;
+        }
+    },
+    INTEGER_LIST {
+        @Override
+        public Class<?> getTypeClass() {
+            return List.class;
+        }
+
+        @Override
+        public JType getType(JCodeModel cm) {
+            return ((JClass) cm._ref(List.class)).narrow(Integer.class);
+        }
     };
     
     
     public abstract Class<?> getTypeClass();
+
+    /**
+     * @param cm
+     *            The code model of the generated fields.
+     * @return The type of the generated fields, the one of
+     *         {@link #getTypeClass()} unless it is generic.
+     */
+    public JType getType(JCodeModel cm) {
+        return cm._ref(getTypeClass());
+    }
     
+    /**
+     * @return A random type among the ones of
+     *         {@link Config#getBasicTypeNames()}.
+     */
     public static BasicType getRandom() {
-        return Config.CFG.getRandom(Arrays.asList(BasicType.values()));
+        List<BasicType> types = Lists.newArrayList();
+        for (String name : Config.CFG.getBasicTypeNames()) {
+            types.add(BasicType.valueOf(name.trim()));
+        }
+        return Config.CFG.getRandom(types);
     }
     
 }
@@ -21,10 +21,13 @@ package org.apache.bval.bench.metatree;
 import java.util.List;
 import org.apache.bval.bench.Util;
 import com.sun.codemodel.JAnnotationUse;
+import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
+import com.sun.codemodel.JType;
 import com.sun.codemodel.JVar;
 
 
@@ -62,22 +65,36 @@ public class JavaBeanBasicField extends AbstractMetaField implements Annotable {
 
         // Generate the field declaration
         JDefinedClass ownerClass = owner.getGeneratedClass();
-        this.generatedField = ownerClass.field(JMod.PRIVATE, basicType.getTypeClass(), name);
+        JType type = basicType.getType(ownerClass.owner());
+        this.generatedField = ownerClass.field(JMod.PRIVATE, type, name);
         
         // The getter
-        getter = ownerClass.method(JMod.PUBLIC, basicType.getTypeClass(), "get" + name.substring(0, 1).toUpperCase() + name.substring(1));
+        getter = ownerClass.method(JMod.PUBLIC, type, "get" + name.substring(0, 1).toUpperCase() + name.substring(1));
         getter.body()._return(this.generatedField);
         
         // And the setter
         setter = ownerClass.method(JMod.PUBLIC, void.class, "set" + name.substring(0, 1).toUpperCase() + name.substring(1));
-        JVar setterParam = setter.param(basicType.getTypeClass(), name);
+        JVar setterParam = setter.param(type, name);
         setter.body().assign(JExpr._this().ref(this.generatedField), setterParam);
+
+        placeAnnotations();
     }
 
 
     // statically assign the code in the field
     public void generateAssignCode(Object value) {
-        this.generatedField.init(Util.literalExpr(value));
+        this.generatedField.init(Util.literalExpr(getOwner().getGeneratedClass().owner(), value));
+    }
+
+    // assign the value to the field of an instance, through its setter
+    public void generateAssignCode(JBlock body, JVar var, JExpression value) {
+        body.add(var.invoke(this.setter).arg(value));
+    }
+
+
+    // read the value of the field of an instance, through its getter
+    public JExpression generateGetCode(JExpression var) {
+        return var.invoke(this.getter);
     }
 
 
@@ -111,7 +128,7 @@ public class JavaBeanBasicField extends AbstractMetaField implements Annotable {
         // Add the annotation to the set of annotations
         if ( this.annotations.add(annot) ) {
             // Generate the source
-            JAnnotationUse genAnnot = getter.annotate(annot.getAnnotationClass());
+            JAnnotationUse genAnnot = getAnnotatedElement(getter).annotate(annot.getAnnotationClass());
             for (String paramKey : annot.getParameters().keySet()) {
                 Util.addAnnotParam(genAnnot, paramKey, annot.getParameters().get(paramKey));
             }
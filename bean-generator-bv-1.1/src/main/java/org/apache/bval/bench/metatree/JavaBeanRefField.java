@@ -18,18 +18,25 @@
  */
 package org.apache.bval.bench.metatree;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import org.apache.bval.bench.Config;
 import org.apache.bval.bench.Util;
 import com.sun.codemodel.JAnnotationUse;
 import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
 import com.sun.codemodel.JVar;
 
 
 /**
- * A field with getter/setter methods that references another bean.
+ * A field with getter/setter methods that references another bean, or a
+ * collection of beans (see {@link RefCardinality}).
  * 
  * @author Carlos Vara
  */
@@ -37,27 +44,79 @@ public class JavaBeanRefField extends AbstractMetaField implements Annotable {
 
     // Referenced bean
     private final MetaJavaBean refBean;
+
+    // Whether a single bean or a collection of beans is referenced
+    private final RefCardinality cardinality;
+
+    // Whether the field references an already existing bean (typed as
+    // Object, so that it can point to any bean of the graph)
+    private final boolean backReference;
     
     private JMethod getter;
     private JMethod setter;
     
     public JavaBeanRefField(MetaJavaBean owner, String name, MetaJavaBean refBean) {
+        this(owner, name, refBean, RefCardinality.ONE);
+    }
+
+    public JavaBeanRefField(MetaJavaBean owner, String name, MetaJavaBean refBean, RefCardinality cardinality) {
+        this(owner, name, refBean, cardinality, false);
+    }
+
+    /**
+     * @param backReference
+     *            <code>true</code> if the field references a bean that
+     *            already exists when the owner is created (the bean
+     *            referencing the owner, or a shared bean) instead of a new
+     *            one. The referenced bean is then the one whose reference led
+     *            to this field, and the field is typed as {@link Object}.
+     */
+    public JavaBeanRefField(MetaJavaBean owner, String name, MetaJavaBean refBean, RefCardinality cardinality, boolean backReference) {
         super(owner, name);
         
         this.refBean = refBean;
+        this.cardinality = cardinality;
+        this.backReference = backReference;
         
         // Generate the field declaration
         JDefinedClass ownerClass = owner.getGeneratedClass();
-        this.generatedField = ownerClass.field(JMod.PRIVATE, refBean.getGeneratedClass(), name);
+        JClass fieldType = getFieldType(cardinality.getTypeClass());
+        this.generatedField = ownerClass.field(JMod.PRIVATE, fieldType, name);
         
         // The getter
-        getter = ownerClass.method(JMod.PUBLIC, refBean.getGeneratedClass(), "get"+name.substring(0, 1).toUpperCase()+name.substring(1));
+        getter = ownerClass.method(JMod.PUBLIC, fieldType, "get"+name.substring(0, 1).toUpperCase()+name.substring(1));
         getter.body()._return(this.generatedField);
         
         // The setter
         setter = ownerClass.method(JMod.PUBLIC, void.class, "set"+name.substring(0, 1).toUpperCase()+name.substring(1));
-        JVar setterParam = setter.param(refBean.getGeneratedClass(), name);
+        JVar setterParam = setter.param(fieldType, name);
         setter.body().assign(JExpr._this().ref(this.generatedField), setterParam);
+
+        placeAnnotations();
+    }
+
+    /**
+     * @param collectionClass
+     *            The raw type of the collection, or <code>null</code> for a
+     *            single bean.
+     * @return The type of the referenced bean, or the collection type holding
+     *         it (maps are indexed by strings).
+     */
+    private JClass getFieldType(Class<?> collectionClass) {
+        JCodeModel cm = refBean.getGeneratedClass().owner();
+        if (backReference) {
+            return cm.ref(Object.class);
+        }
+        switch (cardinality) {
+            case ONE:
+                return refBean.getGeneratedClass();
+            case LIST:
+                return ((JClass) cm._ref(collectionClass)).narrow(refBean.getGeneratedClass());
+            case MAP:
+                return ((JClass) cm._ref(collectionClass)).narrow(cm.ref(String.class), refBean.getGeneratedClass());
+            default:
+                throw new RuntimeException("Unsupported cardinality: " + cardinality);
+        }
     }
 
     @Override
@@ -70,19 +129,76 @@ public class JavaBeanRefField extends AbstractMetaField implements Annotable {
         // Add the annotation to the set of annotations
         if ( this.annotations.add(annot) ) {
             // Generate the source
-            JAnnotationUse genAnnot = getter.annotate(annot.getAnnotationClass());
+            JAnnotationUse genAnnot = getAnnotatedElement(getter).annotate(annot.getAnnotationClass());
             for (String paramKey : annot.getParameters().keySet()) {
                 Util.addAnnotParam(genAnnot, paramKey, annot.getParameters().get(paramKey));
             }
         }
     }    
     
-    public void generateAssignCode(JBlock body, JVar var, JVar value) {
+    public void generateAssignCode(JBlock body, JVar var, JExpression value) {
         body.add(var.invoke(this.setter).arg(value));
     }
 
+    public JExpression generateGetCode(JVar var) {
+        return var.invoke(this.getter);
+    }
+
+    /**
+     * @param var
+     *            The bean owning the collection field.
+     * @return An expression iterating over the referenced beans of a
+     *         collection field (the values of a map).
+     */
+    public JExpression generateGetElementsCode(JVar var) {
+        JExpression collection = generateGetCode(var);
+        return cardinality == RefCardinality.MAP ? collection.invoke("values") : collection;
+    }
+
+    /**
+     * Declares a new empty collection for a collection field.
+     * 
+     * @param body
+     *            The current block of code.
+     * @return The declared collection.
+     */
+    public JVar generateNewCollectionCode(JBlock body) {
+        JClass implType = getFieldType(cardinality == RefCardinality.MAP ? HashMap.class : ArrayList.class);
+        return body.decl(getFieldType(cardinality.getTypeClass()), getName() + "_" + Config.CFG.nextUniqueNum(), JExpr._new(implType));
+    }
+
+    /**
+     * Adds a bean to a collection declared by
+     * {@link #generateNewCollectionCode(JBlock)}.
+     * 
+     * @param body
+     *            The current block of code.
+     * @param collection
+     *            The collection.
+     * @param index
+     *            The index of the bean in the collection, used to build the
+     *            map keys.
+     * @param element
+     *            The bean to add.
+     */
+    public void generateAddElementCode(JBlock body, JVar collection, JExpression index, JExpression element) {
+        if (cardinality == RefCardinality.MAP) {
+            body.add(collection.invoke("put").arg(JExpr.lit("key").plus(index)).arg(element));
+        } else {
+            body.add(collection.invoke("add").arg(element));
+        }
+    }
+
     public MetaJavaBean getRefBean() {
         return refBean;
     }
+
+    public RefCardinality getCardinality() {
+        return cardinality;
+    }
+
+    public boolean isBackReference() {
+        return backReference;
+    }
     
 }
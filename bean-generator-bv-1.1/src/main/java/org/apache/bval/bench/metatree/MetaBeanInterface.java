@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.    
+ */
+package org.apache.bval.bench.metatree;
+
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+
+
+/**
+ * An interface implemented by beans, declaring getters that can be
+ * constrained, and possibly extending another one.
+ */
+public class MetaBeanInterface extends AbstractMetaInterface {
+
+    // The interface this interface extends, if any
+    private final MetaBeanInterface superInterface;
+
+
+    /**
+     * @param fqn
+     *            The fully qualified name of the interface.
+     * @param superInterface
+     *            The interface to extend, or <code>null</code>.
+     */
+    public MetaBeanInterface(JCodeModel cm, String fqn, MetaBeanInterface superInterface) {
+        super(cm, fqn);
+        this.superInterface = superInterface;
+        if (superInterface != null) {
+            getGeneratedClass()._implements(superInterface.getGeneratedClass());
+        }
+    }
+
+
+    /**
+     * Declares a getter, to be annotated by the caller.
+     * 
+     * @param type
+     *            The type of the property.
+     * @param name
+     *            The name of the getter.
+     * @return The declared getter.
+     */
+    public JMethod addGetter(Class<?> type, String name) {
+        return getGeneratedClass().method(JMod.NONE, type, name);
+    }
+
+    /**
+     * @return The interface this interface extends, or <code>null</code>.
+     */
+    public MetaBeanInterface getSuperInterface() {
+        return superInterface;
+    }
+
+}
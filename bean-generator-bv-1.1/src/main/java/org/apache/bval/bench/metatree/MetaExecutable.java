@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.metatree;
+
+import java.util.List;
+import java.util.Set;
+import org.apache.bval.bench.Util;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.sun.codemodel.JAnnotationUse;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JVar;
+
+
+/**
+ * A business method or a constructor of a bean, taking the values of some
+ * basic fields of the bean as parameters (in the order of the fields) and
+ * assigning them. The method returns the value of one of the fields.
+ * <p>
+ * The annotations added to the executable itself apply to its return value or
+ * to all its parameters (cross-parameter constraints), depending on the
+ * constraint.
+ */
+public class MetaExecutable implements Annotable {
+
+    // The bean declaring the executable
+    private final MetaJavaBean owner;
+
+    // The generated method or constructor
+    private final JMethod generatedMethod;
+
+    // The fields passed as parameters, in order
+    private final List<JavaBeanBasicField> parameterFields;
+
+    // The parameters, in the order of the fields
+    private final List<JVar> parameters;
+
+    // The field whose value is returned, null for a constructor
+    private final JavaBeanBasicField returnedField;
+
+    // The set of annotations of the executable
+    private final Set<MetaAnnotation> annotations = Sets.newHashSet();
+
+
+    private MetaExecutable(MetaJavaBean owner, JMethod generatedMethod, List<JavaBeanBasicField> parameterFields, JavaBeanBasicField returnedField) {
+        this.owner = owner;
+        this.generatedMethod = generatedMethod;
+        this.parameterFields = ImmutableList.copyOf(parameterFields);
+        this.returnedField = returnedField;
+        this.parameters = Lists.newArrayListWithExpectedSize(parameterFields.size());
+        for (JavaBeanBasicField field : parameterFields) {
+            JVar param = generatedMethod.param(field.getBasicType().getType(owner.getGeneratedClass().owner()), field.getName());
+            generatedMethod.body().assign(JExpr._this().ref(field.getGeneratedField()), param);
+            parameters.add(param);
+        }
+        if (returnedField != null) {
+            generatedMethod.body()._return(JExpr._this().ref(returnedField.getGeneratedField()));
+        }
+    }
+
+    /**
+     * Creates a public method of the bean.
+     *
+     * @param owner
+     *            The bean declaring the method.
+     * @param name
+     *            The name of the method.
+     * @param parameterFields
+     *            The fields passed as parameters.
+     * @param returnedField
+     *            The field whose value is returned.
+     * @return The new method.
+     */
+    public static MetaExecutable method(MetaJavaBean owner, String name, List<JavaBeanBasicField> parameterFields, JavaBeanBasicField returnedField) {
+        JDefinedClass ownerClass = owner.getGeneratedClass();
+        JMethod method = ownerClass.method(JMod.PUBLIC, returnedField.getBasicType().getType(ownerClass.owner()), name);
+        return new MetaExecutable(owner, method, parameterFields, returnedField);
+    }
+
+    /**
+     * Creates a public constructor of the bean, in addition to its empty one.
+     *
+     * @param owner
+     *            The bean declaring the constructor.
+     * @param parameterFields
+     *            The fields passed as parameters.
+     * @return The new constructor.
+     */
+    public static MetaExecutable constructor(MetaJavaBean owner, List<JavaBeanBasicField> parameterFields) {
+        return new MetaExecutable(owner, owner.getGeneratedClass().constructor(JMod.PUBLIC), parameterFields, null);
+    }
+
+
+    public MetaJavaBean getOwner() {
+        return owner;
+    }
+
+    public List<JavaBeanBasicField> getParameterFields() {
+        return parameterFields;
+    }
+
+    /**
+     * @return The field whose value is returned, or <code>null</code> for a
+     *         constructor.
+     */
+    public JavaBeanBasicField getReturnedField() {
+        return returnedField;
+    }
+
+    /**
+     * Adds an annotation to a parameter of this executable.
+     *
+     * @param index
+     *            The index of the parameter.
+     * @param annot
+     *            The annotation to add.
+     */
+    public void addParameterAnnotation(int index, MetaAnnotation annot) {
+        annotate(parameters.get(index).annotate(annot.getAnnotationClass()), annot);
+    }
+
+    @Override
+    public void accept(AnnotatorVisitor annotator) {
+        annotator.annotate(this);
+    }
+
+    @Override
+    public void addAnnotation(MetaAnnotation annot) {
+        if ( this.annotations.add(annot) ) {
+            annotate(generatedMethod.annotate(annot.getAnnotationClass()), annot);
+        }
+    }
+
+    private static void annotate(JAnnotationUse genAnnot, MetaAnnotation annot) {
+        for (String paramKey : annot.getParameters().keySet()) {
+            Util.addAnnotParam(genAnnot, paramKey, annot.getParameters().get(paramKey));
+        }
+    }
+
+}
@@ -27,6 +27,7 @@ import javax.validation.GroupSequence;
 import org.apache.bval.bench.Config;
 import org.apache.bval.bench.Util;
 import org.apache.bval.bench.jsr303.MetaGroup;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.sun.codemodel.ClassType;
@@ -53,8 +54,18 @@ public class MetaJavaBean extends AbstractBaseMetaClass implements Annotable {
     // The set of annotations for this bean
     private final Set<MetaAnnotation> annotations = Sets.newHashSet();
     
-    // The JSR-303 groups used in this bean
-    private final Set<MetaGroup> groups = Sets.newHashSet();
+    // The bean this bean inherits from, if any
+    private MetaJavaBean superClass;
+
+    // The number of back reference fields
+    private int numBackReferences;
+
+    // The constrained business methods and constructors
+    private final List<MetaExecutable> executables = Lists.newArrayList();
+
+    // The JSR-303 groups used in this bean, in order of use (keeps the output
+    // stable from one generation to another)
+    private final Set<MetaGroup> groups = Sets.newLinkedHashSet();
 
 
     /**
@@ -83,7 +94,7 @@ public class MetaJavaBean extends AbstractBaseMetaClass implements Annotable {
     }
 
     /**
-     * Adds random fields referencing other mjb's.
+     * Adds random fields referencing other mjb's, or collections of them.
      * 
      * @param beans
      *            The list of available beans.
@@ -94,15 +105,74 @@ public class MetaJavaBean extends AbstractBaseMetaClass implements Annotable {
 
         for (int i = 0; i < numInterrelations; ++i) {
             String fieldName = "beanRef" + i;
-            JavaBeanRefField field = new JavaBeanRefField(this, fieldName, Config.CFG.getRandom(beans));
+            RefCardinality cardinality = Config.CFG.shouldUseCollectionRef() ? RefCardinality.getRandomCollection() : RefCardinality.ONE;
+            JavaBeanRefField field = new JavaBeanRefField(this, fieldName, Config.CFG.getRandom(beans), cardinality);
             fields.put(fieldName, field);
         }
     }
 
+    /**
+     * Adds random back reference fields to the beans referenced by this bean,
+     * meant to point back to this bean or to other existing beans. Must be
+     * called once all the beans are interrelated.
+     */
+    public void addBackReferences() {
+        for (AbstractMetaField field : Lists.newArrayList(fields.values())) {
+            if (field instanceof JavaBeanRefField && !((JavaBeanRefField) field).isBackReference() && Config.CFG.shouldAddBackReference()) {
+                MetaJavaBean refBean = ((JavaBeanRefField) field).getRefBean();
+                String fieldName = "backRef" + refBean.numBackReferences++;
+                refBean.fields.put(fieldName, new JavaBeanRefField(refBean, fieldName, this, RefCardinality.ONE, true));
+            }
+        }
+    }
+
+    /**
+     * Adds a business method <code>process&lt;bean name&gt;</code> and a
+     * constructor, both taking the values of all the basic fields of the bean
+     * as parameters (see {@link #getBasicFields()}). The method returns the
+     * value of the first one.
+     */
+    public void addExecutables() {
+        List<JavaBeanBasicField> basicFields = getBasicFields();
+        if (!basicFields.isEmpty()) {
+            executables.add(MetaExecutable.method(this, "process" + getName(), basicFields, basicFields.get(0)));
+            executables.add(MetaExecutable.constructor(this, basicFields));
+        }
+    }
+
+    /**
+     * Adds a field of a kind not created by this class (e.g. specific to a
+     * generator module).
+     * 
+     * @param field
+     *            The field, owned by this bean.
+     */
+    public void addField(AbstractMetaField field) {
+        fields.put(field.getName(), field);
+    }
+
     public Collection<AbstractMetaField> getFields() {
         return this.fields.values();
     }
 
+    /**
+     * @return The basic fields declared by this bean, in the order of
+     *         {@link #getFields()}.
+     */
+    public List<JavaBeanBasicField> getBasicFields() {
+        List<JavaBeanBasicField> basicFields = Lists.newArrayList();
+        for (AbstractMetaField field : fields.values()) {
+            if (field instanceof JavaBeanBasicField) {
+                basicFields.add((JavaBeanBasicField) field);
+            }
+        }
+        return basicFields;
+    }
+
+    public List<MetaExecutable> getExecutables() {
+        return executables;
+    }
+
     public void addGroup(MetaGroup group) {
         this.groups.add(group);
     }
@@ -163,9 +233,16 @@ public class MetaJavaBean extends AbstractBaseMetaClass implements Annotable {
         }
     }
 
-    // FIXME: Keep a reference of the superclass to allow future use of it
-    public void setSuperClass(MetaJavaBean random) {
-        this.getGeneratedClass()._extends(random.getGeneratedClass());
+    public void setSuperClass(MetaJavaBean superClass) {
+        this.superClass = superClass;
+        this.getGeneratedClass()._extends(superClass.getGeneratedClass());
+    }
+
+    /**
+     * @return The bean this bean inherits from, or <code>null</code>.
+     */
+    public MetaJavaBean getSuperClass() {
+        return superClass;
     }
 
 }
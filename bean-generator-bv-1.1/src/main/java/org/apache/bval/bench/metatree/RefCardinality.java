@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.    
+ */
+package org.apache.bval.bench.metatree;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.apache.bval.bench.Config;
+
+
+/**
+ * Number of beans a reference field points to: a single bean, or a collection
+ * of beans (a list, or the values of a map).
+ */
+public enum RefCardinality {
+
+    ONE {
+        @Override
+        public Class<?> getTypeClass() {
+            return null;
+        }
+    },
+    LIST {
+        @Override
+        public Class<?> getTypeClass() {
+            return List.class;
+        }
+    },
+    MAP {
+        @Override
+        public Class<?> getTypeClass() {
+            return Map.class;
+        }
+    };
+
+
+    /**
+     * @return The collection type of the field, or <code>null</code> for a
+     *         single bean.
+     */
+    public abstract Class<?> getTypeClass();
+
+    /**
+     * @return A random collection cardinality.
+     */
+    public static RefCardinality getRandomCollection() {
+        return Config.CFG.getRandom(Arrays.asList(LIST, MAP));
+    }
+
+}
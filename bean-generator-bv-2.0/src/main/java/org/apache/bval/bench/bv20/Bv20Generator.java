@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.    
+ */
+package org.apache.bval.bench.bv20;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.bval.bench.Config;
+import org.apache.bval.bench.Generator;
+import org.apache.bval.bench.Util;
+import org.apache.bval.bench.bv20.jsr380.Jsr380Annotator;
+import org.apache.bval.bench.bv20.metatree.ContainerElementType;
+import org.apache.bval.bench.bv20.metatree.ContainerType;
+import org.apache.bval.bench.bv20.metatree.JavaBeanContainerField;
+import org.apache.bval.bench.jsr303.Jsr303Annotator;
+import org.apache.bval.bench.metatree.AbstractMetaField;
+import org.apache.bval.bench.metatree.AnnotatorVisitor;
+import org.apache.bval.bench.metatree.MetaJavaBean;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JInvocation;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JVar;
+
+
+/**
+ * Entry point for the generation of a Bean Validation 2.0 bean graph.
+ * <p>
+ * The graph is built by the Bean Validation 1.1 {@link Generator}, with
+ * container fields (lists, maps and optionals of basic values or of beans)
+ * added to the beans, and annotated with the Bean Validation 2.0 built-in
+ * constraints and container element constraints by the
+ * {@link Jsr380Annotator}.
+ * <p>
+ * NOTE: Class is not thread-safe.
+ */
+public class Bv20Generator extends Generator {
+
+    /**
+     * Annotates the beans with the {@link Jsr380Annotator} only.
+     */
+    @Override
+    protected List<? extends AnnotatorVisitor> createAnnotators(Jsr303Annotator jsr303Annotator) {
+        return ImmutableList.of(new Jsr380Annotator(getCodeModel()));
+    }
+
+    /**
+     * Adds container fields to the bean. The beans held by the containers are
+     * also first level beans.
+     */
+    @Override
+    protected void enrichBean(MetaJavaBean mjb, List<MetaJavaBean> beans) {
+        int numContainers = Config.CFG.rndBetween("generator.bv20.containerfields.min", "generator.bv20.containerfields.max");
+        for (int i = 0; i < numContainers; ++i) {
+            mjb.addField(new JavaBeanContainerField(mjb, "container" + i, ContainerType.getRandom(), ContainerElementType.getRandom(), Config.CFG.getRandom(beans)));
+        }
+    }
+
+    /**
+     * Fills the containers with valid or invalid basic values, or with nested
+     * beans, which get scarcer with the depth as the referenced beans.
+     */
+    @Override
+    protected void generateFieldInitCode(AbstractMetaField amf, JVar beanDecl, JBlock body, int level, List<JVar> ancestors, List<JVar> created) {
+        if (!(amf instanceof JavaBeanContainerField)) {
+            return;
+        }
+        JavaBeanContainerField jbcf = (JavaBeanContainerField) amf;
+        int size = jbcf.getContainerType() == ContainerType.OPTIONAL ? 1 : Config.CFG.rndBetween("generator.bv20.containersize.min", "generator.bv20.containersize.max");
+
+        List<JExpression> elements = Lists.newArrayListWithExpectedSize(size);
+        for (int i = 0; i < size; ++i) {
+            if (jbcf.getElementType() == ContainerElementType.BEAN) {
+                if (Config.CFG.shouldAddNestedBean(level)) {
+                    ancestors.add(beanDecl);
+                    elements.add(generateBeanNonStaticInitCode(jbcf.getRefBean(), body, level + 1, ancestors, created));
+                    ancestors.remove(ancestors.size() - 1);
+                }
+            } else if (Config.CFG.shouldAssignValidValue()) {
+                elements.add(Util.literalExpr(getCodeModel(), Config.CFG.getRandom(jbcf.getValidValues())));
+            } else {
+                elements.add(Util.literalExpr(getCodeModel(), Config.CFG.getRandom(jbcf.getInvalidValues())));
+            }
+        }
+
+        List<Object> keys = Lists.newArrayListWithExpectedSize(elements.size());
+        if (jbcf.getContainerType() == ContainerType.MAP) {
+            for (int i = 0; i < elements.size(); ++i) {
+                // Valid keys are made unique with a suffix
+                keys.add(Config.CFG.shouldAssignValidValue() ? Config.CFG.getRandom(jbcf.getValidKeys()) + String.valueOf(i) : Config.CFG.getRandom(jbcf.getInvalidKeys()));
+            }
+        }
+        jbcf.generateAssignCode(body, beanDecl, generateContainerCode(jbcf, body, elements, keys));
+    }
+
+    /**
+     * Replaces the basic values of the containers with a single valid or
+     * invalid value, or assigns the values of the beans they hold. When valid
+     * values are requested, the missing containers of beans are set empty.
+     */
+    @Override
+    protected void generateFieldValueAssignCode(AbstractMetaField amf, Map<MetaJavaBean, JMethod> assigners, JBlock body, JVar bean, JVar valid, JVar shared) {
+        if (!(amf instanceof JavaBeanContainerField)) {
+            return;
+        }
+        JavaBeanContainerField jbcf = (JavaBeanContainerField) amf;
+        JExpression container = jbcf.generateGetCode(bean);
+
+        if (jbcf.getElementType() == ContainerElementType.BEAN) {
+            JMethod refAssigner = assigners.get(jbcf.getRefBean());
+            JConditional ifPresent = body._if(container.ne(JExpr._null()));
+            switch (jbcf.getContainerType()) {
+                case LIST:
+                case MAP:
+                    JExpression elements = jbcf.getContainerType() == ContainerType.MAP ? container.invoke("values") : container;
+                    JForEach forEach = ifPresent._then().forEach(jbcf.getRefBean().getGeneratedClass(), jbcf.getName() + "Element", elements);
+                    forEach.body().invoke(refAssigner).arg(forEach.var()).arg(valid).arg(shared);
+                    if (jbcf.getContainerType() == ContainerType.MAP) {
+                        generateMapRekeyCode(jbcf, ifPresent._then()._if(valid)._then(), bean, container);
+                    }
+                    break;
+                case OPTIONAL:
+                    ifPresent._then()._if(container.invoke("isPresent"))._then().invoke(refAssigner).arg(container.invoke("get")).arg(valid).arg(shared);
+                    break;
+                default:
+                    throw new RuntimeException("Unsupported container type: " + jbcf.getContainerType());
+            }
+            JBlock ifMissing = ifPresent._elseif(valid)._then();
+            jbcf.generateAssignCode(ifMissing, bean, generateContainerCode(jbcf, ifMissing, Lists.<JExpression> newArrayList(), Lists.newArrayList()));
+        } else {
+            JConditional ifValid = body._if(valid);
+            List<Object> validKey = Lists.newArrayList();
+            List<Object> invalidKey = Lists.newArrayList();
+            if (jbcf.getContainerType() == ContainerType.MAP) {
+                validKey.add(Config.CFG.getRandom(jbcf.getValidKeys()) + "0");
+                invalidKey.add(Config.CFG.getRandom(jbcf.getInvalidKeys()));
+            }
+            JExpression validValue = Util.literalExpr(getCodeModel(), Config.CFG.getRandom(jbcf.getValidValues()));
+            JExpression invalidValue = Util.literalExpr(getCodeModel(), Config.CFG.getRandom(jbcf.getInvalidValues()));
+            jbcf.generateAssignCode(ifValid._then(), bean, generateContainerCode(jbcf, ifValid._then(), Lists.newArrayList(validValue), validKey));
+            jbcf.generateAssignCode(ifValid._else(), bean, generateContainerCode(jbcf, ifValid._else(), Lists.newArrayList(invalidValue), invalidKey));
+        }
+    }
+
+    /**
+     * Generates the code replacing the keys of a map of beans with unique
+     * valid keys.
+     * 
+     * @param jbcf
+     *            The map field.
+     * @param body
+     *            The current block of code.
+     * @param bean
+     *            The bean owning the map.
+     * @param container
+     *            An expression referencing the map.
+     */
+    private void generateMapRekeyCode(JavaBeanContainerField jbcf, JBlock body, JVar bean, JExpression container) {
+        JClass mapClass = ((JClass) getCodeModel()._ref(HashMap.class)).narrow(getCodeModel().ref(String.class), jbcf.getRefBean().getGeneratedClass());
+        JVar map = body.decl(mapClass, jbcf.getName() + "_" + Config.CFG.nextUniqueNum(), JExpr._new(mapClass));
+        JForEach forEach = body.forEach(jbcf.getRefBean().getGeneratedClass(), jbcf.getName() + "Element", container.invoke("values"));
+        forEach.body().add(map.invoke("put").arg(JExpr.lit((String) Config.CFG.getRandom(jbcf.getValidKeys())).plus(map.invoke("size"))).arg(forEach.var()));
+        jbcf.generateAssignCode(body, bean, map);
+    }
+
+    /**
+     * Generates the creation of the container of a container field.
+     * 
+     * @param jbcf
+     *            The container field.
+     * @param body
+     *            The current block of code.
+     * @param elements
+     *            The elements of the container (its values, for maps).
+     * @param keys
+     *            The keys of the elements, for maps.
+     * @return An expression referencing the created container.
+     */
+    private JExpression generateContainerCode(JavaBeanContainerField jbcf, JBlock body, List<JExpression> elements, List<Object> keys) {
+        JCodeModel cm = getCodeModel();
+        JClass elementClass = jbcf.getRefBean() != null ? jbcf.getRefBean().getGeneratedClass() : cm.ref(jbcf.getElementType().getTypeClass());
+        switch (jbcf.getContainerType()) {
+            case LIST:
+                JInvocation asList = cm.ref(Arrays.class).staticInvoke("asList");
+                for (JExpression element : elements) {
+                    // A lone null argument would be taken as the varargs array
+                    asList.arg(element == JExpr._null() ? JExpr.cast(elementClass, element) : element);
+                }
+                return asList;
+            case MAP:
+                JClass mapClass = ((JClass) cm._ref(HashMap.class)).narrow(cm.ref(String.class), elementClass);
+                JVar map = body.decl(mapClass, jbcf.getName() + "_" + Config.CFG.nextUniqueNum(), JExpr._new(mapClass));
+                for (int i = 0; i < elements.size(); ++i) {
+                    body.add(map.invoke("put").arg(Util.literalExpr(cm, keys.get(i))).arg(elements.get(i)));
+                }
+                return map;
+            case OPTIONAL:
+                return elements.isEmpty() ? cm.ref(Optional.class).staticInvoke("empty") : cm.ref(Optional.class).staticInvoke("ofNullable").arg(elements.get(0));
+            default:
+                throw new RuntimeException("Unsupported container type: " + jbcf.getContainerType());
+        }
+    }
+
+
+    /**
+     * Creates a new {@link Bv20Generator} object and calls
+     * {@link #generateBeanGraph()} on it.
+     * 
+     * @param args
+     *            Unused.
+     */
+    public static void main(String[] args) {
+        System.out.println("Starting Bean Validation 2.0 bean graph generation...");
+        new Bv20Generator().generateBeanGraph();
+        System.out.println("Generated " + Config.CFG.getNumBeans() + " beans.");
+    }
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.    
+ */
+package org.apache.bval.bench.bv20.jsr380;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import javax.validation.Valid;
+import javax.validation.constraints.Email;
+import javax.validation.constraints.NegativeOrZero;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Past;
+import javax.validation.constraints.PastOrPresent;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import org.apache.bval.bench.Config;
+import org.apache.bval.bench.bv20.metatree.ContainerAnnotatorVisitor;
+import org.apache.bval.bench.bv20.metatree.ContainerElementType;
+import org.apache.bval.bench.bv20.metatree.ContainerType;
+import org.apache.bval.bench.bv20.metatree.JavaBeanContainerField;
+import org.apache.bval.bench.jsr303.Jsr303MetaAnnotationSet;
+import org.apache.bval.bench.metatree.AbstractMetaField;
+import org.apache.bval.bench.metatree.AnnotationType;
+import org.apache.bval.bench.metatree.BasicType;
+import org.apache.bval.bench.metatree.JavaBeanBasicField;
+import org.apache.bval.bench.metatree.JavaBeanRefField;
+import org.apache.bval.bench.metatree.MetaAnnotation;
+import org.apache.bval.bench.metatree.MetaExecutable;
+import org.apache.bval.bench.metatree.MetaJavaBean;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.sun.codemodel.JCodeModel;
+
+
+/**
+ * A field annotator that produces Bean Validation 2.0 (JSR-380) annotations:
+ * the new built-in constraints on the basic fields, and container element
+ * constraints on the container fields.
+ * <p>
+ * NOTE: Class is not thread-safe.
+ */
+public class Jsr380Annotator implements ContainerAnnotatorVisitor {
+
+    // The code generator
+    private final JCodeModel codeModel;
+
+    // Available annotations for basic values, used for the basic fields and
+    // the elements of the containers
+    private final ListMultimap<ContainerElementType, Jsr303MetaAnnotationSet> elementAnnotations;
+
+    // Available annotations for the keys of the maps, their valid values stay
+    // valid when suffixed with a number (the keys must be unique)
+    private final List<Jsr303MetaAnnotationSet> keyAnnotations;
+
+
+    public Jsr380Annotator(JCodeModel cm) {
+        this.codeModel = cm;
+        this.elementAnnotations = buildElementAnnotations();
+        this.keyAnnotations = buildKeyAnnotations();
+    }
+
+
+    // Specific annotation methods ---------------------------------------------
+
+    @Override
+    public void annotate(MetaJavaBean mjb) {
+        for (AbstractMetaField amf : mjb.getFields()) {
+            amf.accept(this);
+        }
+    }
+
+    @Override
+    public void annotate(JavaBeanRefField jbrf) {
+        jbrf.addAnnotation(new MetaAnnotation(codeModel, Valid.class, AnnotationType.JSR_380, new HashMap<String, Object>()));
+    }
+
+    @Override
+    public void annotate(JavaBeanBasicField jbbf) {
+        Jsr303MetaAnnotationSet mas = Config.CFG.getRandom(elementAnnotations.get(toElementType(jbbf.getBasicType())));
+        for (MetaAnnotation ma : mas.getAnnotations()) {
+            jbbf.addAnnotation(new MetaAnnotation(ma));
+        }
+
+        List<Object> validValues = Lists.newArrayList(mas.getValidValues());
+        List<Object> invalidValues = Lists.newArrayList(mas.getInvalidValues());
+        if (jbbf.getBasicType() == BasicType.INT) {
+            validValues.remove(null);
+            invalidValues.remove(null);
+        }
+        jbbf.setValidValues(validValues);
+        jbbf.setInvalidValues(invalidValues);
+    }
+
+    @Override
+    public void annotate(MetaExecutable me) {
+        // The beans of this module have no constrained executables
+    }
+
+    @Override
+    public void annotate(JavaBeanContainerField jbcf) {
+
+        // The container itself is always set, except the optionals
+        if (jbcf.getContainerType() != ContainerType.OPTIONAL) {
+            jbcf.addAnnotation(new MetaAnnotation(codeModel, NotNull.class, AnnotationType.JSR_380, new HashMap<String, Object>()));
+        }
+
+        // The elements
+        if (jbcf.getElementType() == ContainerElementType.BEAN) {
+            jbcf.getElementTypeUse().addAnnotation(new MetaAnnotation(codeModel, Valid.class, AnnotationType.JSR_380, new HashMap<String, Object>()));
+        } else {
+            Jsr303MetaAnnotationSet mas = Config.CFG.getRandom(elementAnnotations.get(jbcf.getElementType()));
+            for (MetaAnnotation ma : mas.getAnnotations()) {
+                jbcf.getElementTypeUse().addAnnotation(new MetaAnnotation(ma));
+            }
+            jbcf.setValidValues(mas.getValidValues());
+            jbcf.setInvalidValues(mas.getInvalidValues());
+        }
+
+        // And the keys
+        if (jbcf.getKeyTypeUse() != null) {
+            Jsr303MetaAnnotationSet mas = Config.CFG.getRandom(keyAnnotations);
+            for (MetaAnnotation ma : mas.getAnnotations()) {
+                jbcf.getKeyTypeUse().addAnnotation(new MetaAnnotation(ma));
+            }
+            jbcf.setValidKeys(mas.getValidValues());
+            jbcf.setInvalidKeys(mas.getInvalidValues());
+        }
+    }
+
+
+    // Init methods ------------------------------------------------------------
+
+    private static ContainerElementType toElementType(BasicType basicType) {
+        switch (basicType) {
+            case STRING:
+                return ContainerElementType.STRING;
+            case INTEGER:
+            case INT:
+                return ContainerElementType.INTEGER;
+            default:
+                throw new RuntimeException("Unsupported basic type: " + basicType);
+        }
+    }
+
+    /**
+     * @return A map of lists of annotation constraints available for every
+     *         type of basic value.
+     */
+    private ListMultimap<ContainerElementType, Jsr303MetaAnnotationSet> buildElementAnnotations() {
+
+        ListMultimap<ContainerElementType, Jsr303MetaAnnotationSet> anns = ArrayListMultimap.create();
+
+        Set<MetaAnnotation> annotationsSet;
+        HashMap<String, Object> annotParams;
+
+        // ### STRING ----------------------------------------------------------
+
+        // [@NotNull, @Size(min=2,max=12)] / [ "valid", "goodgood" ] / [ null, "x", "waytoolongvalue" ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotationsSet.add(new MetaAnnotation(codeModel, NotNull.class, AnnotationType.JSR_380, new HashMap<String, Object>()));
+        annotParams = Maps.newHashMap();
+        annotParams.put("min", 2);
+        annotParams.put("max", 12);
+        annotationsSet.add(new MetaAnnotation(codeModel, Size.class, AnnotationType.JSR_380, annotParams));
+        anns.put(ContainerElementType.STRING, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) "valid", "goodgood"), Lists.newArrayList((Object) null, "x", "waytoolongvalue")));
+
+        // @NotBlank / "good" / [ null, "", "   " ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotationsSet.add(new MetaAnnotation(codeModel, NotBlank.class, AnnotationType.JSR_380, new HashMap<String, Object>()));
+        anns.put(ContainerElementType.STRING, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) "good"), Lists.newArrayList((Object) null, "", "   ")));
+
+        // @Email / [ "someone@example.com", null ] / [ "not-an-email", "a@b@c" ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotationsSet.add(new MetaAnnotation(codeModel, Email.class, AnnotationType.JSR_380, new HashMap<String, Object>()));
+        anns.put(ContainerElementType.STRING, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) "someone@example.com", null), Lists.newArrayList((Object) "not-an-email", "a@b@c")));
+
+        // ### INTEGER ---------------------------------------------------------
+
+        // @Positive / [ 3, 155 ] / [ 0, -5 ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotationsSet.add(new MetaAnnotation(codeModel, Positive.class, AnnotationType.JSR_380, new HashMap<String, Object>()));
+        anns.put(ContainerElementType.INTEGER, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) 3, 155), Lists.newArrayList((Object) 0, -5)));
+
+        // [@NotNull, @PositiveOrZero] / [ 0, 7 ] / [ null, -1 ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotationsSet.add(new MetaAnnotation(codeModel, NotNull.class, AnnotationType.JSR_380, new HashMap<String, Object>()));
+        annotationsSet.add(new MetaAnnotation(codeModel, PositiveOrZero.class, AnnotationType.JSR_380, new HashMap<String, Object>()));
+        anns.put(ContainerElementType.INTEGER, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) 0, 7), Lists.newArrayList((Object) null, -1)));
+
+        // @NegativeOrZero / [ -3, 0 ] / [ 4 ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotationsSet.add(new MetaAnnotation(codeModel, NegativeOrZero.class, AnnotationType.JSR_380, new HashMap<String, Object>()));
+        anns.put(ContainerElementType.INTEGER, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) (-3), 0), Lists.newArrayList((Object) 4)));
+
+        // ### LOCAL_DATE ------------------------------------------------------
+
+        // @PastOrPresent / 2000-01-01 / 2999-01-01
+        annotationsSet = Sets.newLinkedHashSet();
+        annotationsSet.add(new MetaAnnotation(codeModel, PastOrPresent.class, AnnotationType.JSR_380, new HashMap<String, Object>()));
+        anns.put(ContainerElementType.LOCAL_DATE, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) LocalDate.of(2000, 1, 1)), Lists.newArrayList((Object) LocalDate.of(2999, 1, 1))));
+
+        // [@NotNull, @Past] / 1999-12-31 / [ null, 2999-01-01 ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotationsSet.add(new MetaAnnotation(codeModel, NotNull.class, AnnotationType.JSR_380, new HashMap<String, Object>()));
+        annotationsSet.add(new MetaAnnotation(codeModel, Past.class, AnnotationType.JSR_380, new HashMap<String, Object>()));
+        anns.put(ContainerElementType.LOCAL_DATE, new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) LocalDate.of(1999, 12, 31)), Lists.newArrayList((Object) null, LocalDate.of(2999, 1, 1))));
+
+        return anns;
+    }
+
+    /**
+     * @return The list of constraints for the keys of the maps.
+     */
+    private List<Jsr303MetaAnnotationSet> buildKeyAnnotations() {
+        List<Jsr303MetaAnnotationSet> anns = Lists.newArrayList();
+        Set<MetaAnnotation> annotationsSet;
+        HashMap<String, Object> annotParams;
+
+        // @NotBlank / "key" / [ "", "   " ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotationsSet.add(new MetaAnnotation(codeModel, NotBlank.class, AnnotationType.JSR_380, new HashMap<String, Object>()));
+        anns.add(new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) "key"), Lists.newArrayList((Object) "", "   ")));
+
+        // @Size(min=3,max=8) / "key" / [ "k", "averylongkey" ]
+        annotationsSet = Sets.newLinkedHashSet();
+        annotParams = Maps.newHashMap();
+        annotParams.put("min", 3);
+        annotParams.put("max", 8);
+        annotationsSet.add(new MetaAnnotation(codeModel, Size.class, AnnotationType.JSR_380, annotParams));
+        anns.add(new Jsr303MetaAnnotationSet(annotationsSet, Lists.newArrayList((Object) "key"), Lists.newArrayList((Object) "k", "averylongkey")));
+
+        return anns;
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.    
+ */
+package org.apache.bval.bench.bv20.metatree;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import org.apache.bval.bench.Util;
+import org.apache.bval.bench.metatree.MetaAnnotation;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.sun.codemodel.JAnnotationUse;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JFormatter;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JTypeVar;
+
+
+/**
+ * A type use annotated with Bean Validation 2.0 container element constraints,
+ * e.g. the <code>@NotBlank String</code> of
+ * <code>List&lt;@NotBlank String&gt;</code>.
+ * <p>
+ * CodeModel does not support type annotations: this class wraps the annotated
+ * type and prints its annotations before it. The annotations themselves are
+ * built on an anonymous class that is never output, so that CodeModel still
+ * handles their imports.
+ */
+public class AnnotatedJClass extends JClass {
+
+    // The annotated type
+    private final JClass type;
+
+    // Holds the annotation uses, never output
+    private final JDefinedClass scratch;
+
+    // The set of annotations for this type use
+    private final Set<MetaAnnotation> annotations = Sets.newLinkedHashSet();
+
+    // The generated annotation uses, in order
+    private final List<JAnnotationUse> annotationUses = Lists.newArrayList();
+
+
+    public AnnotatedJClass(JClass type) {
+        super(type.owner());
+        this.type = type;
+        this.scratch = type.owner().anonymousClass(Object.class);
+    }
+
+    /**
+     * @return The type without its annotations.
+     */
+    public JClass getType() {
+        return type;
+    }
+
+    /**
+     * Adds an annotation to this type use.
+     * 
+     * @param annot
+     *            The annotation to add.
+     */
+    public void addAnnotation(MetaAnnotation annot) {
+        if ( this.annotations.add(annot) ) {
+            JAnnotationUse genAnnot = scratch.annotate(annot.getAnnotationClass());
+            for (String paramKey : annot.getParameters().keySet()) {
+                Util.addAnnotParam(genAnnot, paramKey, annot.getParameters().get(paramKey));
+            }
+            annotationUses.add(genAnnot);
+        }
+    }
+
+    @Override
+    public void generate(JFormatter f) {
+        for (JAnnotationUse annotationUse : annotationUses) {
+            f.g(annotationUse);
+        }
+        f.g(type);
+    }
+
+    @Override
+    public String name() {
+        return type.name();
+    }
+
+    @Override
+    public String fullName() {
+        return type.fullName();
+    }
+
+    @Override
+    public JPackage _package() {
+        return type._package();
+    }
+
+    @Override
+    public JClass _extends() {
+        return type._extends();
+    }
+
+    @Override
+    public Iterator<JClass> _implements() {
+        return type._implements();
+    }
+
+    @Override
+    public boolean isInterface() {
+        return type.isInterface();
+    }
+
+    @Override
+    public boolean isAbstract() {
+        return type.isAbstract();
+    }
+
+    @Override
+    protected JClass substituteParams(JTypeVar[] variables, List<JClass> bindings) {
+        return this;
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.    
+ */
+package org.apache.bval.bench.bv20.metatree;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import org.apache.bval.bench.Config;
+
+
+/**
+ * The types of the elements of a container (the values, for maps).
+ */
+public enum ContainerElementType {
+
+    STRING {
+        @Override
+        public Class<?> getTypeClass() {
+            return String.class;
+        }
+    },
+    INTEGER {
+        @Override
+        public Class<?> getTypeClass() {
+            return Integer.class;
+        }
+    },
+    LOCAL_DATE {
+        @Override
+        public Class<?> getTypeClass() {
+            return LocalDate.class;
+        }
+    },
+    BEAN {
+        @Override
+        public Class<?> getTypeClass() {
+            return null; // One of the generated beans
+        }
+    };
+
+
+    public abstract Class<?> getTypeClass();
+
+    public static ContainerElementType getRandom() {
+        return Config.CFG.getRandom(Arrays.asList(ContainerElementType.values()));
+    }
+
+}
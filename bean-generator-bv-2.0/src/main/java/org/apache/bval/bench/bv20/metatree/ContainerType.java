@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.    
+ */
+package org.apache.bval.bench.bv20.metatree;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.bval.bench.Config;
+
+
+/**
+ * The containers whose elements can be constrained.
+ */
+public enum ContainerType {
+
+    LIST {
+        @Override
+        public Class<?> getTypeClass() {
+            return List.class;
+        }
+    },
+    MAP {
+        @Override
+        public Class<?> getTypeClass() {
+            return Map.class;
+        }
+    },
+    OPTIONAL {
+        @Override
+        public Class<?> getTypeClass() {
+            return Optional.class;
+        }
+    };
+
+
+    public abstract Class<?> getTypeClass();
+
+    public static ContainerType getRandom() {
+        return Config.CFG.getRandom(Arrays.asList(ContainerType.values()));
+    }
+
+}
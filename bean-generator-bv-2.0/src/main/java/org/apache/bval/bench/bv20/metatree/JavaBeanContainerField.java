@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.    
+ */
+package org.apache.bval.bench.bv20.metatree;
+
+import java.util.List;
+import org.apache.bval.bench.Util;
+import org.apache.bval.bench.metatree.AbstractMetaField;
+import org.apache.bval.bench.metatree.Annotable;
+import org.apache.bval.bench.metatree.AnnotatorVisitor;
+import org.apache.bval.bench.metatree.MetaAnnotation;
+import org.apache.bval.bench.metatree.MetaJavaBean;
+import com.sun.codemodel.JAnnotationUse;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JVar;
+
+
+/**
+ * A field with getter/setter methods holding a container (list, map or
+ * optional) of basic values or of beans.
+ * <p>
+ * The constraints of the elements (and of the keys, for maps) are placed on
+ * the type arguments of the getter's return type, e.g.
+ * <code>List&lt;@NotBlank String&gt; getField()</code>, the field and the
+ * setter use the same type without annotations.
+ */
+public class JavaBeanContainerField extends AbstractMetaField implements Annotable {
+
+    private final ContainerType containerType;
+    private final ContainerElementType elementType;
+
+    // Referenced bean, for BEAN elements
+    private final MetaJavaBean refBean;
+
+    // The type uses holding the element and key constraints
+    private final AnnotatedJClass elementTypeUse;
+    private final AnnotatedJClass keyTypeUse;
+
+    private JMethod getter;
+    private JMethod setter;
+
+    // The values the elements (and the keys) are initialized to
+    private List<Object> validValues;
+    private List<Object> invalidValues;
+    private List<Object> validKeys;
+    private List<Object> invalidKeys;
+
+
+    /**
+     * Creates a container field.
+     * 
+     * @param owner
+     *            The class that owns this field.
+     * @param name
+     *            The name of the field.
+     * @param containerType
+     *            The type of container.
+     * @param elementType
+     *            The type of the elements.
+     * @param refBean
+     *            The type of the elements if they are beans, ignored
+     *            otherwise.
+     */
+    public JavaBeanContainerField(MetaJavaBean owner, String name, ContainerType containerType, ContainerElementType elementType, MetaJavaBean refBean) {
+
+        super(owner, name);
+
+        this.containerType = containerType;
+        this.elementType = elementType;
+        this.refBean = elementType == ContainerElementType.BEAN ? refBean : null;
+
+        JDefinedClass ownerClass = owner.getGeneratedClass();
+        JCodeModel cm = ownerClass.owner();
+        JClass elementClass = this.refBean != null ? this.refBean.getGeneratedClass() : cm.ref(elementType.getTypeClass());
+        this.elementTypeUse = new AnnotatedJClass(elementClass);
+
+        JClass containerClass = cm.ref(containerType.getTypeClass());
+        JClass plainType;
+        JClass annotatedType;
+        if (containerType == ContainerType.MAP) {
+            this.keyTypeUse = new AnnotatedJClass(cm.ref(String.class));
+            plainType = containerClass.narrow(cm.ref(String.class), elementClass);
+            annotatedType = containerClass.narrow(keyTypeUse, elementTypeUse);
+        } else {
+            this.keyTypeUse = null;
+            plainType = containerClass.narrow(elementClass);
+            annotatedType = containerClass.narrow(elementTypeUse);
+        }
+
+        // Generate the field declaration
+        this.generatedField = ownerClass.field(JMod.PRIVATE, plainType, name);
+
+        // The getter, holding the element constraints
+        getter = ownerClass.method(JMod.PUBLIC, annotatedType, "get" + name.substring(0, 1).toUpperCase() + name.substring(1));
+        getter.body()._return(this.generatedField);
+
+        // And the setter
+        setter = ownerClass.method(JMod.PUBLIC, void.class, "set" + name.substring(0, 1).toUpperCase() + name.substring(1));
+        JVar setterParam = setter.param(plainType, name);
+        setter.body().assign(JExpr._this().ref(this.generatedField), setterParam);
+    }
+
+
+    public void generateAssignCode(JBlock body, JVar var, JExpression value) {
+        body.add(var.invoke(this.setter).arg(value));
+    }
+
+    public JExpression generateGetCode(JVar var) {
+        return var.invoke(this.getter);
+    }
+
+    public ContainerType getContainerType() {
+        return containerType;
+    }
+
+    public ContainerElementType getElementType() {
+        return elementType;
+    }
+
+    public MetaJavaBean getRefBean() {
+        return refBean;
+    }
+
+    /**
+     * @return The type use of the elements (the values, for maps).
+     */
+    public AnnotatedJClass getElementTypeUse() {
+        return elementTypeUse;
+    }
+
+    /**
+     * @return The type use of the keys, <code>null</code> if the container is
+     *         not a map.
+     */
+    public AnnotatedJClass getKeyTypeUse() {
+        return keyTypeUse;
+    }
+
+    public void setValidValues(List<Object> validValues) {
+        this.validValues = validValues;
+    }
+
+    public List<Object> getValidValues() {
+        return validValues;
+    }
+
+    public void setInvalidValues(List<Object> invalidValues) {
+        this.invalidValues = invalidValues;
+    }
+
+    public List<Object> getInvalidValues() {
+        return invalidValues;
+    }
+
+    public void setValidKeys(List<Object> validKeys) {
+        this.validKeys = validKeys;
+    }
+
+    public List<Object> getValidKeys() {
+        return validKeys;
+    }
+
+    public void setInvalidKeys(List<Object> invalidKeys) {
+        this.invalidKeys = invalidKeys;
+    }
+
+    public List<Object> getInvalidKeys() {
+        return invalidKeys;
+    }
+
+    @Override
+    public void accept(AnnotatorVisitor annotator) {
+        if (annotator instanceof ContainerAnnotatorVisitor) {
+            ((ContainerAnnotatorVisitor) annotator).annotate(this);
+        }
+    }
+
+    @Override
+    public void addAnnotation(MetaAnnotation annot) {
+        // Add the annotation to the set of annotations
+        if ( this.annotations.add(annot) ) {
+            // Generate the source, constraining the container itself
+            JAnnotationUse genAnnot = getter.annotate(annot.getAnnotationClass());
+            for (String paramKey : annot.getParameters().keySet()) {
+                Util.addAnnotParam(genAnnot, paramKey, annot.getParameters().get(paramKey));
+            }
+        }
+    }
+
+}
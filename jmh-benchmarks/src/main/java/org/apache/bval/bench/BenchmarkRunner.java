@@ -1,9 +1,40 @@
 package org.apache.bval.bench;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
 import java.util.stream.Stream;
 
+import org.apache.bval.bench.benchmarks.AllocationBenchmark;
+import org.apache.bval.bench.benchmarks.BuiltinConstraintBenchmark;
+import org.apache.bval.bench.benchmarks.CircularReferenceBenchmark;
+import org.apache.bval.bench.benchmarks.ColdStartBenchmark;
+import org.apache.bval.bench.benchmarks.CompositionDepthBenchmark;
+import org.apache.bval.bench.benchmarks.ConstraintPlacementBenchmark;
+import org.apache.bval.bench.benchmarks.DepthBenchmark;
+import org.apache.bval.bench.benchmarks.ExecutableValidationBenchmark;
+import org.apache.bval.bench.benchmarks.FailFastBenchmark;
+import org.apache.bval.bench.benchmarks.FanOutValidationBenchmark;
+import org.apache.bval.bench.benchmarks.HierarchyDepthBenchmark;
+import org.apache.bval.bench.benchmarks.GroupValidationSpeedBenchmark;
+import org.apache.bval.bench.benchmarks.InvalidRatioBenchmark;
+import org.apache.bval.bench.benchmarks.MessageInterpolationBenchmark;
+import org.apache.bval.bench.benchmarks.MetadataBuildingBenchmark;
 import org.apache.bval.bench.benchmarks.ParsingBeansSpeedBenchmark;
+import org.apache.bval.bench.benchmarks.PatternBenchmark;
+import org.apache.bval.bench.benchmarks.PropertyValidationBenchmark;
 import org.apache.bval.bench.benchmarks.RawValidationSpeedBenchmark;
+import org.apache.bval.bench.benchmarks.ValidatorScalingBenchmark;
+import org.apache.bval.bench.generated.Holder;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
 import org.openjdk.jmh.results.format.ResultFormatType;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -12,6 +43,7 @@ import org.openjdk.jmh.runner.options.CommandLineOptionException;
 import org.openjdk.jmh.runner.options.CommandLineOptions;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Statistics;
 
 /**
  * @author Marko Bekhta
@@ -21,9 +53,53 @@ public final class BenchmarkRunner {
 
 	private static final Stream<? extends Class<?>> DEFAULT_TEST_CLASSES = Stream.of(
 			ParsingBeansSpeedBenchmark.class,
-			RawValidationSpeedBenchmark.class
+			RawValidationSpeedBenchmark.class,
+			GroupValidationSpeedBenchmark.class,
+			ColdStartBenchmark.class,
+			MetadataBuildingBenchmark.class,
+			InvalidRatioBenchmark.class,
+			FanOutValidationBenchmark.class,
+			CircularReferenceBenchmark.class,
+			CompositionDepthBenchmark.class,
+			DepthBenchmark.class,
+			ExecutableValidationBenchmark.class,
+			PropertyValidationBenchmark.class,
+			MessageInterpolationBenchmark.class,
+			FailFastBenchmark.class,
+			BuiltinConstraintBenchmark.class,
+			PatternBenchmark.class,
+			HierarchyDepthBenchmark.class,
+			ConstraintPlacementBenchmark.class
 	);
 
+	/**
+	 * The benchmarks only compiled with some profiles (e.g. the Bean Validation 2.0 ones), run by default when present.
+	 */
+	private static final List<String> OPTIONAL_TEST_CLASS_NAMES = Arrays.asList(
+			"org.apache.bval.bench.benchmarks.ContainerElementValidationBenchmark"
+	);
+
+	/**
+	 * When set to {@code true}, the sampled benchmarks are run once per generated bean class.
+	 */
+	private static final String PER_BEAN_CLASS_PROPERTY = "perBeanClass";
+
+	private static final String BEAN_CLASS_PARAM = "beanClass";
+
+	/**
+	 * When set to {@code true}, the selected benchmarks ({@link ValidatorScalingBenchmark} by default) are run once
+	 * per thread count, see {@link ScalingSweep}.
+	 */
+	private static final String SCALING_PROPERTY = "scaling";
+
+	/**
+	 * When set to {@code true}, the selected benchmarks ({@link AllocationBenchmark} by default) are run with the GC
+	 * profiler and the bytes allocated per operation are printed at the end of the run.
+	 */
+	private static final String ALLOCATION_PROPERTY = "allocation";
+
+	private static final String ALLOCATION_RESULT_SUFFIX = "gc.alloc.rate.norm";
+
 	private BenchmarkRunner() {
 	}
 
@@ -39,11 +115,127 @@ public final class BenchmarkRunner {
 		if ( !commandLineOptions.getResultFormat().hasValue() ) {
 			builder.resultFormat( ResultFormatType.JSON );
 		}
+		boolean scaling = Boolean.getBoolean( SCALING_PROPERTY );
+		boolean allocation = Boolean.getBoolean( ALLOCATION_PROPERTY );
 		if ( commandLineOptions.getIncludes().isEmpty() ) {
-			DEFAULT_TEST_CLASSES.forEach( testClass -> builder.include( testClass.getName() ) );
+			if ( scaling ) {
+				builder.include( ValidatorScalingBenchmark.class.getName() );
+			}
+			else if ( allocation ) {
+				builder.include( AllocationBenchmark.class.getName() );
+			}
+			else {
+				DEFAULT_TEST_CLASSES.forEach( testClass -> builder.include( testClass.getName() ) );
+				OPTIONAL_TEST_CLASS_NAMES.stream()
+						.filter( BenchmarkRunner::isPresent )
+						.forEach( builder::include );
+			}
+		}
+		if ( Boolean.getBoolean( PER_BEAN_CLASS_PROPERTY ) && !commandLineOptions.getParameter( BEAN_CLASS_PARAM ).hasValue() ) {
+			builder.param( BEAN_CLASS_PARAM, generatedBeanClassNames() );
 		}
+		if ( allocation ) {
+			builder.addProfiler( GCProfiler.class );
+		}
+		// Only reports results for the benchmarks publishing latencies
+		builder.addProfiler( LatencyProfiler.class );
 
 		Options opt = builder.build();
-		new Runner( opt ).run();
+		if ( scaling ) {
+			new ScalingSweep( opt ).run();
+			return;
+		}
+		Collection<RunResult> results = new Runner( opt ).run();
+		printPercentiles( results );
+		printAllocations( results );
+	}
+
+	private static boolean isPresent(String className) {
+		return BenchmarkRunner.class.getClassLoader().getResource( className.replace( '.', '/' ) + ".class" ) != null;
+	}
+
+	private static String[] generatedBeanClassNames() {
+		Collection<String> names = new TreeSet<>();
+		for ( Object bean : new Holder().beans ) {
+			names.add( bean.getClass().getSimpleName() );
+		}
+		return names.toArray( new String[names.size()] );
+	}
+
+	/**
+	 * Prints the p50/p99/p99.9 latencies of the sampled benchmarks, one line per parameter set, the slowest p99
+	 * first so that tail regressions can be traced back to a given bean class.
+	 */
+	private static void printPercentiles(Collection<RunResult> results) {
+		List<RunResult> sampled = new ArrayList<>();
+		for ( RunResult result : results ) {
+			if ( result.getParams().getMode() == Mode.SampleTime ) {
+				sampled.add( result );
+			}
+		}
+		if ( sampled.isEmpty() ) {
+			return;
+		}
+		sampled.sort( Comparator.comparingDouble( (RunResult r) -> r.getPrimaryResult().getStatistics().getPercentile( 99 ) ).reversed() );
+
+		System.out.println();
+		System.out.println( "Latency percentiles:" );
+		System.out.println( String.format( Locale.ROOT, "%-55s %-20s %12s %12s %12s %8s", "Benchmark", "Params", "p50", "p99", "p99.9", "Unit" ) );
+		for ( RunResult result : sampled ) {
+			Result<?> primary = result.getPrimaryResult();
+			Statistics statistics = primary.getStatistics();
+			System.out.println( String.format( Locale.ROOT, "%-55s %-20s %12.3f %12.3f %12.3f %8s",
+					shortBenchmarkName( result ),
+					paramsAsString( result ),
+					statistics.getPercentile( 50 ),
+					statistics.getPercentile( 99 ),
+					statistics.getPercentile( 99.9 ),
+					primary.getScoreUnit() ) );
+		}
+	}
+
+	/**
+	 * Prints the bytes allocated per operation of the benchmarks run with the GC profiler, one line per parameter set.
+	 */
+	private static void printAllocations(Collection<RunResult> results) {
+		List<String> lines = new ArrayList<>();
+		for ( RunResult result : results ) {
+			for ( Map.Entry<String, Result> secondary : result.getSecondaryResults().entrySet() ) {
+				if ( secondary.getKey().endsWith( ALLOCATION_RESULT_SUFFIX ) ) {
+					Result<?> allocations = secondary.getValue();
+					lines.add( String.format( Locale.ROOT, "%-55s %-20s %12.1f %12.1f %8s",
+							shortBenchmarkName( result ),
+							paramsAsString( result ),
+							allocations.getScore(),
+							allocations.getScoreError(),
+							allocations.getScoreUnit() ) );
+				}
+			}
+		}
+		if ( lines.isEmpty() ) {
+			return;
+		}
+
+		System.out.println();
+		System.out.println( "Allocations:" );
+		System.out.println( String.format( Locale.ROOT, "%-55s %-20s %12s %12s %8s", "Benchmark", "Params", "Alloc", "Error", "Unit" ) );
+		lines.forEach( System.out::println );
+	}
+
+	private static String shortBenchmarkName(RunResult result) {
+		String benchmark = result.getParams().getBenchmark();
+		return benchmark.substring( benchmark.lastIndexOf( '.', benchmark.lastIndexOf( '.' ) - 1 ) + 1 );
+	}
+
+	private static String paramsAsString(RunResult result) {
+		StringBuilder sb = new StringBuilder();
+		for ( String key : result.getParams().getParamsKeys() ) {
+			if ( sb.length() > 0 ) {
+				sb.append( ',' );
+			}
+			String value = result.getParams().getParam( key );
+			sb.append( key ).append( '=' ).append( value.isEmpty() ? "*" : value );
+		}
+		return sb.toString();
 	}
 }
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * Reports the latency percentiles published by a benchmark during an iteration as secondary results, so that they are
+ * written to the result file along with the score.
+ * <p>
+ * Percentiles are not additive: unlike the auxiliary counters, which are summed over the iterations, the results of
+ * this profiler are averaged over the iterations. Benchmarks not publishing any percentile get no result.
+ */
+public final class LatencyProfiler implements InternalProfiler {
+
+	/**
+	 * The prefix of the secondary results, followed by the percentile (e.g. {@code latency.p99}).
+	 */
+	public static final String RESULT_PREFIX = "latency.";
+
+	private static final String[] LABELS = { "p50", "p99", "p99.9" };
+
+	private static final double[] RANKS = { 0.5, 0.99, 0.999 };
+
+	private static volatile double[] published;
+
+	/**
+	 * Publishes the latencies of the current iteration.
+	 *
+	 * @param sortedNanos the latencies in nanoseconds, sorted in ascending order
+	 */
+	public static void publish(long[] sortedNanos) {
+		if ( sortedNanos.length == 0 ) {
+			return;
+		}
+		double[] percentiles = new double[RANKS.length];
+		for ( int i = 0; i < RANKS.length; i++ ) {
+			int index = (int) Math.min( sortedNanos.length - 1, Math.ceil( RANKS[i] * sortedNanos.length ) - 1 );
+			percentiles[i] = sortedNanos[index] / 1000.0;
+		}
+		published = percentiles;
+	}
+
+	@Override
+	public String getDescription() {
+		return "Latency percentiles published by the benchmarks";
+	}
+
+	@Override
+	public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+		published = null;
+	}
+
+	@Override
+	public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+			IterationResult result) {
+		double[] percentiles = published;
+		if ( percentiles == null ) {
+			return Collections.emptyList();
+		}
+		List<Result> results = new ArrayList<>();
+		for ( int i = 0; i < LABELS.length; i++ ) {
+			results.add( new ScalarResult( RESULT_PREFIX + LABELS[i], percentiles[i], "us", AggregationPolicy.AVG ) );
+		}
+		return results;
+	}
+}
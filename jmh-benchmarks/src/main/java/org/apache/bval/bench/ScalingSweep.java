@@ -0,0 +1,136 @@
+package org.apache.bval.bench;
+
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the selected benchmarks once per thread count and reports, for every parameter set, the throughput per thread
+ * and the scaling efficiency compared to the smallest thread count.
+ * <p>
+ * The thread counts are given by the {@code scalingThreads} system property (e.g. {@code -DscalingThreads=1,2,4,8}),
+ * and default to the powers of 2 up to twice the number of available processors.
+ * <p>
+ * The JMH results of all the runs are written to the result file, and the scaling curves to a {@code -scaling.json}
+ * file next to it.
+ */
+final class ScalingSweep {
+
+	private static final String SCALING_THREADS_PROPERTY = "scalingThreads";
+
+	private final Options baseOptions;
+
+	private final int[] threadCounts;
+
+	ScalingSweep(Options baseOptions) {
+		this.baseOptions = baseOptions;
+		this.threadCounts = threadCounts();
+	}
+
+	void run() throws RunnerException {
+		List<RunResult> results = new ArrayList<>();
+		for ( int threads : threadCounts ) {
+			Options options = new OptionsBuilder().parent( baseOptions ).threads( threads ).build();
+			results.addAll( new Runner( options ).run() );
+		}
+
+		String resultFile = baseOptions.getResult().get();
+		ResultFormatType resultFormat = baseOptions.getResultFormat().get();
+		ResultFormatFactory.getInstance( resultFormat, resultFile ).writeOut( results );
+		writeScalingCurves( results, resultFile.replaceFirst( "(\\.json)?$", "-scaling.json" ) );
+	}
+
+	private static int[] threadCounts() {
+		String property = System.getProperty( SCALING_THREADS_PROPERTY );
+		if ( property != null ) {
+			String[] values = property.split( "," );
+			int[] counts = new int[values.length];
+			for ( int i = 0; i < values.length; i++ ) {
+				counts[i] = Integer.parseInt( values[i].trim() );
+			}
+			return counts;
+		}
+
+		int max = 2 * Runtime.getRuntime().availableProcessors();
+		List<Integer> counts = new ArrayList<>();
+		for ( int threads = 1; threads < max; threads *= 2 ) {
+			counts.add( threads );
+		}
+		counts.add( max );
+		return counts.stream().mapToInt( Integer::intValue ).toArray();
+	}
+
+	/**
+	 * Groups the results by benchmark and parameters (excluding the thread count), and writes for each group the
+	 * score, the score per thread and the efficiency, i.e. the score per thread relative to the one of the smallest
+	 * thread count.
+	 */
+	private static void writeScalingCurves(Collection<RunResult> results, String file) {
+		Map<String, List<RunResult>> curves = new LinkedHashMap<>();
+		for ( RunResult result : results ) {
+			String key = result.getParams().getBenchmark() + paramsAsJson( result );
+			curves.computeIfAbsent( key, k -> new ArrayList<>() ).add( result );
+		}
+
+		try ( PrintWriter out = new PrintWriter( file ) ) {
+			out.println( "[" );
+			int curveIndex = 0;
+			for ( List<RunResult> curve : curves.values() ) {
+				curve.sort( ( r1, r2 ) -> Integer.compare( r1.getParams().getThreads(), r2.getParams().getThreads() ) );
+				RunResult first = curve.get( 0 );
+				double baseline = first.getPrimaryResult().getScore() / first.getParams().getThreads();
+
+				out.println( "    {" );
+				out.println( "        \"benchmark\" : \"" + first.getParams().getBenchmark() + "\"," );
+				out.println( "        \"params\" : " + paramsAsJson( first ) + "," );
+				out.println( "        \"scoreUnit\" : \"" + first.getPrimaryResult().getScoreUnit() + "\"," );
+				out.println( "        \"curve\" : [" );
+				for ( int i = 0; i < curve.size(); i++ ) {
+					RunResult result = curve.get( i );
+					Result<?> primary = result.getPrimaryResult();
+					int threads = result.getParams().getThreads();
+					double perThread = primary.getScore() / threads;
+					out.print( String.format( Locale.ROOT,
+							"            { \"threads\" : %d, \"score\" : %s, \"scoreError\" : %s, \"scorePerThread\" : %s, \"efficiency\" : %s }",
+							threads, jsonNumber( primary.getScore() ), jsonNumber( primary.getScoreError() ), jsonNumber( perThread ), jsonNumber( perThread / baseline ) ) );
+					out.println( i < curve.size() - 1 ? "," : "" );
+				}
+				out.println( "        ]" );
+				out.println( ++curveIndex < curves.size() ? "    }," : "    }" );
+			}
+			out.println( "]" );
+		}
+		catch (FileNotFoundException e) {
+			throw new IllegalStateException( "Unable to write the scaling curves to " + file, e );
+		}
+	}
+
+	private static String jsonNumber(double value) {
+		return Double.isNaN( value ) || Double.isInfinite( value ) ? "null" : String.format( Locale.ROOT, "%f", value );
+	}
+
+	private static String paramsAsJson(RunResult result) {
+		StringBuilder sb = new StringBuilder( "{" );
+		for ( String key : result.getParams().getParamsKeys() ) {
+			if ( sb.length() > 1 ) {
+				sb.append( ", " );
+			}
+			sb.append( '"' ).append( key ).append( "\" : \"" ).append( result.getParams().getParam( key ) ).append( '"' );
+		}
+		return sb.append( '}' ).toString();
+	}
+}
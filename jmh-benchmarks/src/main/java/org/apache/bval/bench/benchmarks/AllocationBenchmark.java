@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.apache.bval.bench.generated.Holder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tests the memory allocated by the validation of a single bean, the generated population being built with valid
+ * values only (the empty set path) or with invalid values only (the {@link ConstraintViolation}s building path).
+ * <p>
+ * The allocations are only reported when the benchmark is run with the GC profiler, see the {@code allocation} system
+ * property of {@code BenchmarkRunner}. They are given in bytes per operation ({@code gc.alloc.rate.norm}): the number
+ * of objects allocated per operation is not reported, as the JVM only exposes allocated bytes and counting the objects
+ * would require an allocation instrumentation agent, which would also distort the scores.
+ */
+public class AllocationBenchmark {
+
+	public enum BeanValidity {
+		/**
+		 * The beans without any constraint violation, including in their cascaded beans.
+		 */
+		VALID,
+		/**
+		 * The beans with at least one constraint violation.
+		 */
+		INVALID
+	}
+
+	@State(Scope.Thread)
+	public static class AllocationState {
+
+		@Param({ "VALID", "INVALID" })
+		public BeanValidity beanValidity;
+
+		public Validator validator;
+
+		private ValidatorFactory factory;
+
+		private Object[] beans;
+
+		private int index;
+
+		@Setup
+		public void setup() {
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+
+			boolean valid = beanValidity == BeanValidity.VALID;
+			beans = new Holder( valid ? 0 : 1 ).beans.toArray();
+			for ( Object o : beans ) {
+				if ( validator.validate( o ).isEmpty() != valid ) {
+					throw new IllegalStateException( "Expected only " + beanValidity + " beans but got " + o );
+				}
+			}
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+
+		public Object next() {
+			Object bean = beans[index];
+			index = ( index + 1 ) % beans.length;
+			return bean;
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public void testValidation(AllocationState state, Blackhole bh) {
+		Set<ConstraintViolation<Object>> constraintViolations = state.validator.validate( state.next() );
+		bh.consume( constraintViolations );
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.apache.bval.bench.generated.alltypes.Holder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tests the validators of the built-in constraints basic type by basic type, with the values used by the generated
+ * beans, to find which of them dominate the validation.
+ * <p>
+ * The properties are the ones of the property tables of the {@code alltypes} population of the generator, whose
+ * basic fields are drawn from every basic type but {@code PATTERNED}, left to {@link PatternBenchmark} (see the
+ * {@code generator.population.alltypes.basictypes} property of the generator). Every operation validates the valid or
+ * the invalid value of a property of the requested type with {@code validateValue}, in turn, so that each set of
+ * constraints of the type is measured as often as the generator draws it. The population has no groups, so that the
+ * values are validated against all the constraints of their property.
+ */
+public class BuiltinConstraintBenchmark {
+
+	public enum ValueValidity {
+		/**
+		 * A value breaking no constraint.
+		 */
+		VALID,
+		/**
+		 * A value breaking a constraint of the property.
+		 */
+		INVALID
+	}
+
+	@State(Scope.Thread)
+	public static class BuiltinConstraintState {
+
+		@Param({ "STRING", "INTEGER", "INT", "TEXT", "BIG_DECIMAL", "DATE", "CALENDAR", "ENUM", "INT_ARRAY",
+				"INTEGER_LIST" })
+		public String basicType;
+
+		@Param({ "VALID", "INVALID" })
+		public ValueValidity valueValidity;
+
+		public Validator validator;
+
+		private ValidatorFactory factory;
+
+		private Class<?>[] beanClasses;
+
+		private String[] names;
+
+		private Object[] values;
+
+		private int index;
+
+		@Setup
+		public void setup() {
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+
+			boolean valid = valueValidity == ValueValidity.VALID;
+			List<Class<?>> beanClasses = new ArrayList<>();
+			List<String> names = new ArrayList<>();
+			List<Object> values = new ArrayList<>();
+			for ( int i = 0; i < Holder.SUPPLIERS.length; i++ ) {
+				Class<?> beanClass = Holder.SUPPLIERS[i].get().getClass();
+				for ( Object[] row : Holder.PROPERTIES[i].get() ) {
+					if ( row[3].equals( basicType ) ) {
+						Object value = valid ? row[1] : row[2];
+						if ( validator.validateValue( beanClass, (String) row[0], value ).isEmpty() != valid ) {
+							throw new IllegalStateException( "Expected a " + valueValidity + " value for " + beanClass.getName() + "." + row[0] );
+						}
+						beanClasses.add( beanClass );
+						names.add( (String) row[0] );
+						values.add( value );
+					}
+				}
+			}
+			if ( names.isEmpty() ) {
+				throw new IllegalArgumentException( "No generated property of the basic type " + basicType );
+			}
+			this.beanClasses = beanClasses.toArray( new Class<?>[0] );
+			this.names = names.toArray( new String[0] );
+			this.values = values.toArray();
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+
+		public int next() {
+			int current = index;
+			index = ( index + 1 ) % names.length;
+			return current;
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 5)
+	public Object testValidation(BuiltinConstraintState state) {
+		int i = state.next();
+		return state.validator.validateValue( state.beanClasses[i], state.names[i], state.values[i] );
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.apache.bval.bench.generated.circular.Holder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tests the validation of a single bean depending on the shape of its bean graph: a tree, or a graph with cycles and
+ * shared beans, both holding the same beans.
+ * <p>
+ * The beans are the valid beans of the {@code circular} population of the generator whose graph has at least one back
+ * reference (see the {@code generator.population.circular.circularref.ratio} property of the generator). A back
+ * reference points either to the referencing bean (a cycle) or to a bean created before (a shared bean):
+ * <ul>
+ * <li>{@code TREE}: all the back references are set to {@code null},</li>
+ * <li>{@code GRAPH}: the back references are kept as generated.</li>
+ * </ul>
+ * The providers validate the same beans whatever the shape, but have to detect the already validated beans in the
+ * second one. The population redefines no default group sequence: with Hibernate Validator 6.0, the cycles holding
+ * violations overflow the stack when the beans redefine their default group sequence.
+ */
+public class CircularReferenceBenchmark {
+
+	public enum GraphShape {
+		TREE,
+		GRAPH
+	}
+
+	@State(Scope.Thread)
+	public static class CircularReferenceState {
+
+		@Param({ "TREE", "GRAPH" })
+		public GraphShape shape;
+
+		public Validator validator;
+
+		private ValidatorFactory factory;
+
+		private Object[] beans;
+
+		private int index;
+
+		@Setup
+		public void setup() throws ReflectiveOperationException {
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+
+			List<Object> selected = new ArrayList<>();
+			for ( Object bean : new Holder( 0 ).beans ) {
+				Set<Object> walked = Collections.newSetFromMap( new IdentityHashMap<>() );
+				walked.add( bean );
+				if ( rewire( bean, walked ) ) {
+					if ( !validator.validate( bean ).isEmpty() ) {
+						throw new IllegalStateException( "Expected a valid " + shape + " graph for " + bean.getClass().getName() );
+					}
+					selected.add( bean );
+				}
+			}
+			if ( selected.isEmpty() ) {
+				throw new IllegalArgumentException( "No generated bean with a back reference in its graph" );
+			}
+			beans = selected.toArray();
+		}
+
+		/**
+		 * Clears the back references of a bean for the {@code TREE} shape, then walks its forward references.
+		 *
+		 * @param walked the beans already walked, or being walked
+		 * @return whether the graph of the bean holds at least one back reference
+		 */
+		private boolean rewire(Object bean, Set<Object> walked) throws ReflectiveOperationException {
+			boolean backReferenced = false;
+			for ( Method getter : bean.getClass().getMethods() ) {
+				if ( getter.getName().startsWith( "getBackRef" ) && getter.invoke( bean ) != null ) {
+					backReferenced = true;
+					if ( shape == GraphShape.TREE ) {
+						bean.getClass().getMethod( "set" + getter.getName().substring( 3 ), Object.class ).invoke( bean, (Object) null );
+					}
+				}
+			}
+
+			for ( Method getter : bean.getClass().getMethods() ) {
+				if ( getter.getName().startsWith( "getBeanRef" ) ) {
+					for ( Object nested : referencedBeans( getter.invoke( bean ) ) ) {
+						if ( walked.add( nested ) ) {
+							backReferenced |= rewire( nested, walked );
+						}
+					}
+				}
+			}
+			return backReferenced;
+		}
+
+		private static Collection<?> referencedBeans(Object value) {
+			if ( value == null ) {
+				return Collections.emptyList();
+			}
+			else if ( value instanceof Collection ) {
+				return (Collection<?>) value;
+			}
+			else if ( value instanceof Map ) {
+				return ( (Map<?, ?>) value ).values();
+			}
+			return Collections.singletonList( value );
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+
+		public Object next() {
+			Object bean = beans[index];
+			index = ( index + 1 ) % beans.length;
+			return bean;
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public void testValidation(CircularReferenceState state, Blackhole bh) {
+		Set<ConstraintViolation<Object>> constraintViolations = state.validator.validate( state.next() );
+		bh.consume( constraintViolations );
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.apache.bval.bench.generated.Holder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tests the cost paid by a freshly started JVM: every measurement is a single shot in a new fork, without any warmup.
+ * <p>
+ * The bootstrap of the factory, the first metadata retrieval of all the beans and the first validation of all the
+ * beans are measured separately: each phase is timed with the previous ones already done in the setup.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 10)
+@Threads(1)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class ColdStartBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BeansState {
+
+		public Object[] beans;
+
+		@Setup
+		public void setup() {
+			beans = new Holder().beans.toArray();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class BootstrapState {
+
+		public ValidatorFactory factory;
+
+		@TearDown(Level.Iteration)
+		public void teardown() {
+			factory.close();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class FactoryState {
+
+		public ValidatorFactory factory;
+
+		public Validator validator;
+
+		@Setup
+		public void setup() {
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class MetadataState {
+
+		public Validator validator;
+
+		@Setup
+		public void setup(FactoryState factoryState, BeansState beansState) {
+			validator = factoryState.validator;
+			for ( Object o : beansState.beans ) {
+				validator.getConstraintsForClass( o.getClass() );
+			}
+		}
+	}
+
+	@Benchmark
+	public void testBootstrap(BootstrapState state, Blackhole bh) {
+		state.factory = Validation.buildDefaultValidatorFactory();
+		bh.consume( state.factory.getValidator() );
+	}
+
+	@Benchmark
+	public void testFirstMetadata(FactoryState state, BeansState beansState, Blackhole bh) {
+		for ( Object o : beansState.beans ) {
+			bh.consume( state.validator.getConstraintsForClass( o.getClass() ).isBeanConstrained() );
+		}
+	}
+
+	@Benchmark
+	public void testFirstValidation(MetadataState state, BeansState beansState, Blackhole bh) {
+		for ( Object o : beansState.beans ) {
+			bh.consume( state.validator.validate( o ) );
+		}
+	}
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import javax.validation.metadata.ConstraintDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tests how the depth of a tree of composed constraints affects the building of the metadata and the validation.
+ * <p>
+ * The trees are the random ones of the {@code composition<compositionDepth>} populations of the generator (see the
+ * {@code generator.population.composition<compositionDepth>.composition.depth} property of the generator), added to
+ * the constraints of the string fields. The benchmark reads the property tables of the population and keeps the
+ * properties constrained by the tree, validating their valid or invalid value one property per operation, so that
+ * the other constraints of the beans are left out. The invalid value breaks every leaf of the tree.
+ */
+public class CompositionDepthBenchmark {
+
+	public enum ValueValidity {
+		/**
+		 * A value breaking no constraint of the tree.
+		 */
+		VALID,
+		/**
+		 * A value breaking every leaf constraint of the tree.
+		 */
+		INVALID
+	}
+
+	@State(Scope.Thread)
+	public static class CompositionValidationState {
+
+		@Param({ "1", "2", "3", "4" })
+		public int compositionDepth;
+
+		@Param({ "VALID", "INVALID" })
+		public ValueValidity valueValidity;
+
+		public Validator validator;
+
+		private ValidatorFactory factory;
+
+		private List<ComposedProperty> properties;
+
+		private int index;
+
+		@Setup
+		public void setup() throws ReflectiveOperationException {
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+			properties = composedProperties( compositionDepth, validator );
+
+			boolean valid = valueValidity == ValueValidity.VALID;
+			for ( ComposedProperty property : properties ) {
+				if ( validator.validateValue( property.beanClass, property.name, property.value( valid ) ).isEmpty() != valid ) {
+					throw new IllegalStateException( "Expected a " + valueValidity + " value for " + property );
+				}
+			}
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+
+		public ComposedProperty next() {
+			ComposedProperty property = properties.get( index );
+			index = ( index + 1 ) % properties.size();
+			return property;
+		}
+	}
+
+	/**
+	 * Retrieves the metadata of a property constrained by the tree in a new factory at each invocation, the bean
+	 * declaring the property changing from one invocation to the next.
+	 */
+	@State(Scope.Thread)
+	public static class CompositionMetadataState {
+
+		@Param({ "1", "2", "3", "4" })
+		public int compositionDepth;
+
+		public Validator validator;
+
+		public ComposedProperty property;
+
+		private List<ComposedProperty> properties;
+
+		private int index;
+
+		private ValidatorFactory factory;
+
+		@Setup
+		public void setup() throws ReflectiveOperationException {
+			ValidatorFactory setupFactory = Validation.buildDefaultValidatorFactory();
+			try {
+				properties = composedProperties( compositionDepth, setupFactory.getValidator() );
+			}
+			finally {
+				setupFactory.close();
+			}
+		}
+
+		@Setup(Level.Invocation)
+		public void newFactory() {
+			if ( factory != null ) {
+				factory.close();
+			}
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+			// Excludes the lazy initialization of the factory from the measurement
+			validator.getConstraintsForClass( Object.class );
+			property = properties.get( index );
+			index = ( index + 1 ) % properties.size();
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+	}
+
+	/**
+	 * A property constrained by the tree of composed constraints, with its values from the property table.
+	 */
+	public static class ComposedProperty {
+
+		public final Class<?> beanClass;
+
+		public final String name;
+
+		private final Object validValue;
+
+		private final Object invalidValue;
+
+		ComposedProperty(Class<?> beanClass, Object[] row) {
+			this.beanClass = beanClass;
+			this.name = (String) row[0];
+			this.validValue = row[1];
+			this.invalidValue = row[2];
+		}
+
+		public Object value(boolean valid) {
+			return valid ? validValue : invalidValue;
+		}
+
+		@Override
+		public String toString() {
+			return beanClass.getName() + "." + name;
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public Object testValidation(CompositionValidationState state) {
+		ComposedProperty property = state.next();
+		return state.validator.validateValue( property.beanClass, property.name, property.value( state.valueValidity == ValueValidity.VALID ) );
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 10)
+	public Object testMetadata(CompositionMetadataState state) {
+		return state.validator.getConstraintsForClass( state.property.beanClass ).getConstraintsForProperty( state.property.name );
+	}
+
+	/**
+	 * @return the properties of the first level beans of the {@code composition<compositionDepth>} population
+	 *         constrained by its tree of composed constraints
+	 */
+	@SuppressWarnings("unchecked")
+	private static List<ComposedProperty> composedProperties(int compositionDepth, Validator validator) throws ReflectiveOperationException {
+		Class<?> holderClass;
+		try {
+			holderClass = Class.forName( "org.apache.bval.bench.generated.composition" + compositionDepth + ".Holder" );
+		}
+		catch (ClassNotFoundException e) {
+			throw new IllegalArgumentException( "No generated population for the composition depth " + compositionDepth, e );
+		}
+		Supplier<Object>[] suppliers = (Supplier<Object>[]) holderClass.getField( "SUPPLIERS" ).get( null );
+		Supplier<Object[][]>[] tables = (Supplier<Object[][]>[]) holderClass.getField( "PROPERTIES" ).get( null );
+
+		List<ComposedProperty> properties = new ArrayList<>();
+		for ( int i = 0; i < suppliers.length; i++ ) {
+			Class<?> beanClass = suppliers[i].get().getClass();
+			for ( Object[] row : tables[i].get() ) {
+				PropertyDescriptor descriptor = validator.getConstraintsForClass( beanClass ).getConstraintsForProperty( (String) row[0] );
+				if ( descriptor != null && isComposed( descriptor ) ) {
+					properties.add( new ComposedProperty( beanClass, row ) );
+				}
+			}
+		}
+		if ( properties.isEmpty() ) {
+			throw new IllegalArgumentException( "No generated property constrained by a tree of composed constraints of depth " + compositionDepth );
+		}
+		return properties;
+	}
+
+	private static boolean isComposed(PropertyDescriptor descriptor) {
+		for ( ConstraintDescriptor<?> constraint : descriptor.getConstraintDescriptors() ) {
+			if ( constraint.getAnnotation().annotationType().getSimpleName().startsWith( "Composed" ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
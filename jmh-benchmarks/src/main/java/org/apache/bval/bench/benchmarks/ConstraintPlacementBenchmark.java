@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tests how the placement of the constraints, on the fields or on the getters, affects the building of the metadata
+ * and the validation, the providers reading the properties by reflection on the fields or by invoking the getters.
+ * <p>
+ * The beans are the ones of the {@code getterplacement}, {@code fieldplacement} and {@code mixedplacement}
+ * populations of the generator, one per value of the {@code generator.constraint.placement} property. The
+ * {@code GETTER} and {@code FIELD} populations only differ by the placement of their constraints. The {@code MIXED}
+ * one draws the placement of every field, placing {@code generator.constraint.placement.fieldratio} of them on the
+ * field, and these draws change the rest of its beans.
+ */
+public class ConstraintPlacementBenchmark {
+
+	public enum ValueValidity {
+		/**
+		 * Values breaking no constraint.
+		 */
+		VALID,
+		/**
+		 * Values breaking the constraints of every basic field.
+		 */
+		INVALID
+	}
+
+	@State(Scope.Thread)
+	public static class PlacementValidationState {
+
+		@Param({ "GETTER", "FIELD", "MIXED" })
+		public String placement;
+
+		@Param({ "VALID", "INVALID" })
+		public ValueValidity valueValidity;
+
+		public Validator validator;
+
+		private ValidatorFactory factory;
+
+		private Object[] beans;
+
+		private int index;
+
+		@Setup
+		public void setup() throws ReflectiveOperationException {
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+
+			boolean valid = valueValidity == ValueValidity.VALID;
+			beans = placementBeans( placement, valid );
+			for ( Object bean : beans ) {
+				if ( validator.validate( bean ).isEmpty() != valid ) {
+					throw new IllegalStateException( "Expected " + valueValidity + " values for " + bean.getClass().getName() );
+				}
+			}
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+
+		public Object next() {
+			Object bean = beans[index];
+			index = ( index + 1 ) % beans.length;
+			return bean;
+		}
+	}
+
+	/**
+	 * Validates a bean in a new factory at each invocation, the bean changing from one invocation to the next.
+	 */
+	@State(Scope.Thread)
+	public static class PlacementMetadataState {
+
+		@Param({ "GETTER", "FIELD", "MIXED" })
+		public String placement;
+
+		public Validator validator;
+
+		public Object bean;
+
+		private Object[] beans;
+
+		private int index;
+
+		private ValidatorFactory factory;
+
+		@Setup
+		public void setup() throws ReflectiveOperationException {
+			beans = placementBeans( placement, true );
+		}
+
+		@Setup(Level.Invocation)
+		public void newFactory() {
+			if ( factory != null ) {
+				factory.close();
+			}
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+			// Excludes the lazy initialization of the factory from the measurement
+			validator.getConstraintsForClass( Object.class );
+			bean = beans[index];
+			index = ( index + 1 ) % beans.length;
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public Object testValidation(PlacementValidationState state) {
+		return state.validator.validate( state.next() );
+	}
+
+	/**
+	 * Builds the metadata of the bean graph, on its first validation.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 10)
+	public Object testMetadata(PlacementMetadataState state) {
+		return state.validator.validate( state.bean );
+	}
+
+	/**
+	 * @return The beans of the population of the given placement, holding valid or invalid values.
+	 */
+	private static Object[] placementBeans(String placement, boolean valid) throws ReflectiveOperationException {
+		Class<?> holderClass;
+		try {
+			holderClass = Class.forName( "org.apache.bval.bench.generated." + placement.toLowerCase() + "placement.Holder" );
+		}
+		catch (ClassNotFoundException e) {
+			throw new IllegalArgumentException( "No generated population for the " + placement + " placement", e );
+		}
+		Object holder = holderClass.getConstructor( double.class ).newInstance( valid ? 0.0 : 1.0 );
+		return ( (List<?>) holderClass.getField( "beans" ).get( holder ) ).toArray();
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tests the validation of a single bean depending on the depth of its bean graph.
+ * <p>
+ * The beans are the valid beans of the {@code depth<depth>} population of the generator whose graph reaches the
+ * maximum depth of the population (see the {@code generator.population.depth<depth>.depth.max} property of the
+ * generator). The depth populations share the same fill rate at every level, so that the graphs only differ by the
+ * number of levels they are allowed to grow: the number of beans of a graph grows with its depth, as it does in the
+ * default population.
+ * <p>
+ * The references of the depth populations get no {@code @NotNull} or {@code @Null} constraint (see the
+ * {@code generator.refconstraints.ratio} property of the generator): assigning the valid values neither clears nor
+ * fills any of them, so that the validated graphs are the generated ones.
+ */
+public class DepthBenchmark {
+
+	@State(Scope.Thread)
+	public static class DepthState {
+
+		@Param({ "1", "2", "4", "8" })
+		public int depth;
+
+		public Validator validator;
+
+		private ValidatorFactory factory;
+
+		private Object[] beans;
+
+		private int index;
+
+		@Setup
+		public void setup() throws ReflectiveOperationException {
+			Class<?> holderClass;
+			try {
+				holderClass = Class.forName( "org.apache.bval.bench.generated.depth" + depth + ".Holder" );
+			}
+			catch (ClassNotFoundException e) {
+				throw new IllegalArgumentException( "No generated population for the depth " + depth, e );
+			}
+			List<?> population = (List<?>) holderClass.getField( "beans" ).get( holderClass.getConstructor( double.class ).newInstance( 0.0 ) );
+
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+
+			List<Object> selected = new ArrayList<>();
+			for ( Object bean : population ) {
+				if ( depthOf( bean ) == depth ) {
+					if ( !validator.validate( bean ).isEmpty() ) {
+						throw new IllegalStateException( "Expected a valid graph for " + bean.getClass().getName() );
+					}
+					selected.add( bean );
+				}
+			}
+			if ( selected.isEmpty() ) {
+				throw new IllegalArgumentException( "No generated bean with a graph of depth " + depth );
+			}
+			beans = selected.toArray();
+		}
+
+		/**
+		 * @return the number of levels of nested beans below the bean, 0 for a bean without nested bean
+		 */
+		private static int depthOf(Object bean) throws ReflectiveOperationException {
+			int depth = 0;
+			for ( Method getter : bean.getClass().getMethods() ) {
+				if ( getter.getName().startsWith( "getBeanRef" ) ) {
+					for ( Object nested : referencedBeans( getter.invoke( bean ) ) ) {
+						depth = Math.max( depth, depthOf( nested ) + 1 );
+					}
+				}
+			}
+			return depth;
+		}
+
+		private static Collection<?> referencedBeans(Object value) {
+			if ( value == null ) {
+				return Collections.emptyList();
+			}
+			else if ( value instanceof Collection ) {
+				return (Collection<?>) value;
+			}
+			else if ( value instanceof Map ) {
+				return ( (Map<?, ?>) value ).values();
+			}
+			return Collections.singletonList( value );
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+
+		public Object next() {
+			Object bean = beans[index];
+			index = ( index + 1 ) % beans.length;
+			return bean;
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public void testValidation(DepthState state, Blackhole bh) {
+		Set<ConstraintViolation<Object>> constraintViolations = state.validator.validate( state.next() );
+		bh.consume( constraintViolations );
+	}
+}
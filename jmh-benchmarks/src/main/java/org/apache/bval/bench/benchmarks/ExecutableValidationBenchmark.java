@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import javax.validation.executable.ExecutableValidator;
+import javax.validation.metadata.BeanDescriptor;
+
+import org.apache.bval.bench.generated.executables.Holder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tests the validation of the constrained business methods and constructors of the generated beans, as done by the
+ * method validation interceptors, and the cost of building their metadata.
+ * <p>
+ * The beans are the ones of the {@code executables} population of the generator, where every bean gets constrained
+ * executables (see the {@code generator.population.executables.executables.ratio} property of the generator). The
+ * business method {@code process<bean name>} and the additional constructor of a bean take the values of its basic
+ * fields, and carry their constraints and a cross-parameter constraint. The method returns the value of one of
+ * the fields. The arguments are read from a bean holding valid or invalid values, see the
+ * {@code argumentValidity} parameter.
+ */
+public class ExecutableValidationBenchmark {
+
+	public enum ArgumentValidity {
+		/**
+		 * Arguments and return values breaking no constraint.
+		 */
+		VALID,
+		/**
+		 * Arguments and return values breaking all their constraints.
+		 */
+		INVALID
+	}
+
+	@State(Scope.Benchmark)
+	public static class ExecutableValidationState {
+
+		@Param({ "VALID", "INVALID" })
+		public ArgumentValidity argumentValidity;
+
+		public volatile ExecutableValidator executableValidator;
+
+		public volatile Object[] beans;
+
+		public volatile Method[] methods;
+
+		public volatile Constructor<?>[] constructors;
+
+		public volatile Object[][] arguments;
+
+		public volatile Object[] returnValues;
+
+		private ValidatorFactory factory;
+
+		@Setup
+		public void setup() throws ReflectiveOperationException {
+			factory = Validation.buildDefaultValidatorFactory();
+			executableValidator = factory.getValidator().forExecutables();
+
+			boolean valid = argumentValidity == ArgumentValidity.VALID;
+			List<Object> beans = new ArrayList<>();
+			List<Method> methods = new ArrayList<>();
+			List<Constructor<?>> constructors = new ArrayList<>();
+			List<Object[]> arguments = new ArrayList<>();
+			List<Object> returnValues = new ArrayList<>();
+			for ( int i = 0; i < Holder.SUPPLIERS.length; i++ ) {
+				Object bean = Holder.SUPPLIERS[i].get();
+				Method method = businessMethod( bean.getClass() );
+				if ( method == null ) {
+					continue;
+				}
+				Holder.VALUE_ASSIGNERS[i].accept( bean, valid );
+				Object[] args = Holder.ARGUMENTS[i].apply( bean );
+
+				beans.add( bean );
+				methods.add( method );
+				constructors.add( bean.getClass().getConstructor( method.getParameterTypes() ) );
+				arguments.add( args );
+				// Assigns the values the bean already holds
+				returnValues.add( method.invoke( bean, args ) );
+			}
+			if ( beans.isEmpty() ) {
+				throw new IllegalStateException( "No generated bean has constrained executables" );
+			}
+			this.beans = beans.toArray();
+			this.methods = methods.toArray( new Method[0] );
+			this.constructors = constructors.toArray( new Constructor<?>[0] );
+			this.arguments = arguments.toArray( new Object[0][] );
+			this.returnValues = returnValues.toArray();
+
+			for ( int i = 0; i < this.beans.length; i++ ) {
+				if ( executableValidator.validateParameters( this.beans[i], this.methods[i], this.arguments[i] ).isEmpty() != valid ) {
+					throw new IllegalStateException( "Expected " + argumentValidity + " arguments for " + this.methods[i] );
+				}
+			}
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+	}
+
+	/**
+	 * Retrieves the descriptors of the constrained executables of one bean class per invocation, the factory being
+	 * rebuilt once all the classes have been seen.
+	 */
+	@State(Scope.Thread)
+	public static class ExecutableMetadataState {
+
+		public Validator validator;
+
+		public Class<?> beanClass;
+
+		public Method method;
+
+		private Method[] methods;
+
+		private int cursor;
+
+		private ValidatorFactory factory;
+
+		@Setup
+		public void setup() {
+			List<Method> methods = new ArrayList<>();
+			for ( Object bean : new Holder().beans ) {
+				Method method = businessMethod( bean.getClass() );
+				if ( method != null ) {
+					methods.add( method );
+				}
+			}
+			this.methods = methods.toArray( new Method[0] );
+			cursor = this.methods.length;
+		}
+
+		@Setup(Level.Invocation)
+		public void nextBeanClass() {
+			if ( cursor == methods.length ) {
+				if ( factory != null ) {
+					factory.close();
+				}
+				factory = Validation.buildDefaultValidatorFactory();
+				validator = factory.getValidator();
+				cursor = 0;
+			}
+			method = methods[cursor++];
+			beanClass = method.getDeclaringClass();
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public void testParameterValidation(ExecutableValidationState state, Blackhole bh) {
+		for ( int i = 0; i < state.beans.length; i++ ) {
+			bh.consume( state.executableValidator.validateParameters( state.beans[i], state.methods[i], state.arguments[i] ) );
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public void testReturnValueValidation(ExecutableValidationState state, Blackhole bh) {
+		for ( int i = 0; i < state.beans.length; i++ ) {
+			bh.consume( state.executableValidator.validateReturnValue( state.beans[i], state.methods[i], state.returnValues[i] ) );
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public void testConstructorParameterValidation(ExecutableValidationState state, Blackhole bh) {
+		for ( int i = 0; i < state.constructors.length; i++ ) {
+			bh.consume( state.executableValidator.validateConstructorParameters( state.constructors[i], state.arguments[i] ) );
+		}
+	}
+
+	/**
+	 * The baseline of {@link #testExecutableDescriptors(ExecutableMetadataState, Blackhole)}: the metadata of the bean
+	 * class only.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 10)
+	public void testBeanDescriptor(ExecutableMetadataState state, Blackhole bh) {
+		bh.consume( state.validator.getConstraintsForClass( state.beanClass ).isBeanConstrained() );
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 10)
+	public void testExecutableDescriptors(ExecutableMetadataState state, Blackhole bh) {
+		BeanDescriptor descriptor = state.validator.getConstraintsForClass( state.beanClass );
+		Class<?>[] parameterTypes = state.method.getParameterTypes();
+		bh.consume( descriptor.getConstraintsForMethod( state.method.getName(), parameterTypes ) );
+		bh.consume( descriptor.getConstraintsForConstructor( parameterTypes ) );
+	}
+
+	/**
+	 * @return the constrained business method of a generated bean class, or {@code null} if it has none
+	 */
+	private static Method businessMethod(Class<?> beanClass) {
+		String name = "process" + beanClass.getSimpleName();
+		for ( Method method : beanClass.getDeclaredMethods() ) {
+			if ( method.getName().equals( name ) ) {
+				return method;
+			}
+		}
+		return null;
+	}
+}
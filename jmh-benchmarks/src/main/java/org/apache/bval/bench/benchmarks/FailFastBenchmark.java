@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.Configuration;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.apache.bval.bench.generated.Holder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tests what the fail-fast mode of the provider saves on populations mixing valid and invalid beans in a given ratio,
+ * up to junk payloads only ({@code 1}): in this mode, the validation of a bean stops at its first violated constraint.
+ * <p>
+ * The fail-fast mode is enabled with the {@code hibernate.validator.fail_fast} configuration property, which the
+ * other providers ignore: with them, the {@code FAIL_FAST} runs fail in their setup. The number of violations is
+ * reported as the {@code violations} secondary result, see {@link ViolationCounter}.
+ */
+public class FailFastBenchmark {
+
+	private static final String FAIL_FAST_PROPERTY = "hibernate.validator.fail_fast";
+
+	public enum ValidationMode {
+		/**
+		 * All the violations are reported.
+		 */
+		DEFAULT,
+		/**
+		 * The validation stops at the first violated constraint.
+		 */
+		FAIL_FAST
+	}
+
+	@State(Scope.Benchmark)
+	public static class FailFastState {
+
+		@Param({ "0.2", "0.5", "1" })
+		public double invalidRatio;
+
+		@Param({ "DEFAULT", "FAIL_FAST" })
+		public ValidationMode validationMode;
+
+		public volatile Validator validator;
+
+		public volatile Object[] beans;
+
+		private ValidatorFactory factory;
+
+		@Setup
+		public void setup() {
+			Configuration<?> configuration = Validation.byDefaultProvider().configure();
+			if ( validationMode == ValidationMode.FAIL_FAST ) {
+				configuration.addProperty( FAIL_FAST_PROPERTY, "true" );
+			}
+			factory = configuration.buildValidatorFactory();
+			validator = factory.getValidator();
+			beans = new Holder( invalidRatio ).beans.toArray();
+
+			int invalid = 0;
+			int violations = 0;
+			for ( Object o : beans ) {
+				int beanViolations = validator.validate( o ).size();
+				if ( beanViolations > 0 ) {
+					invalid++;
+				}
+				violations += beanViolations;
+			}
+			int expected = (int) ( beans.length * invalidRatio );
+			if ( invalid != expected ) {
+				throw new IllegalStateException( "Expected " + expected + " invalid beans but got " + invalid );
+			}
+			if ( validationMode == ValidationMode.FAIL_FAST && invalid > 0 && violations == defaultViolations() ) {
+				throw new IllegalStateException( "The provider does not support the " + FAIL_FAST_PROPERTY + " property" );
+			}
+		}
+
+		/**
+		 * @return the number of violations of the beans with the default configuration
+		 */
+		private int defaultViolations() {
+			ValidatorFactory defaultFactory = Validation.buildDefaultValidatorFactory();
+			try {
+				Validator defaultValidator = defaultFactory.getValidator();
+				int violations = 0;
+				for ( Object o : beans ) {
+					violations += defaultValidator.validate( o ).size();
+				}
+				return violations;
+			}
+			finally {
+				defaultFactory.close();
+			}
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public void testValidation(FailFastState state, ViolationCounter counter, Blackhole bh) {
+		for ( Object o : state.beans ) {
+			int violations = state.validator.validate( o ).size();
+			counter.violations += violations;
+			bh.consume( violations );
+		}
+	}
+}
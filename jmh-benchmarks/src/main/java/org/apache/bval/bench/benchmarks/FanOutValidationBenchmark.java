@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.apache.bval.bench.generated.fanout.Holder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tests the validation of a single bean cascading through collections of beans, depending on the number of beans in
+ * the collections (the fan-out).
+ * <p>
+ * The beans are the beans of the {@code fanout} population of the generator with at least one non empty collection of
+ * beans of the requested type (see the {@code generator.population.fanout.collectionrefs.ratio} property of the
+ * generator). In every one of them, the collections of the
+ * requested type are refilled with {@code fanOut} distinct beans, created by the generated suppliers. All the beans only
+ * hold valid values, so that the score is the cost of the cascade and not the one of building violations. The nested
+ * collections of the added beans keep their generated size.
+ */
+public class FanOutValidationBenchmark {
+
+	public enum CollectionType {
+		LIST,
+		MAP
+	}
+
+	@State(Scope.Thread)
+	public static class FanOutState {
+
+		@Param({ "1", "10", "100", "1000" })
+		public int fanOut;
+
+		@Param({ "LIST", "MAP" })
+		public CollectionType collectionType;
+
+		public Validator validator;
+
+		private ValidatorFactory factory;
+
+		private Object[] beans;
+
+		private int index;
+
+		@Setup
+		public void setup() throws IllegalAccessException, InvocationTargetException {
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+
+			// The suppliers and value assigners are indexed the same way, one per generated bean class
+			Map<Class<?>, Integer> indexes = new HashMap<>();
+			List<Object> roots = new ArrayList<>();
+			for ( int i = 0; i < Holder.SUPPLIERS.length; i++ ) {
+				Object root = Holder.SUPPLIERS[i].get();
+				Holder.VALUE_ASSIGNERS[i].accept( root, true );
+				indexes.put( root.getClass(), i );
+				roots.add( root );
+			}
+
+			List<Object> selected = new ArrayList<>();
+			for ( Object root : roots ) {
+				boolean refilled = false;
+				for ( Method getter : root.getClass().getMethods() ) {
+					if ( getter.getName().startsWith( "get" ) && getter.getParameterCount() == 0 ) {
+						refilled |= refill( getter.invoke( root ), indexes );
+					}
+				}
+				if ( refilled ) {
+					selected.add( root );
+				}
+			}
+			if ( selected.isEmpty() ) {
+				throw new IllegalArgumentException( "No generated bean with a " + collectionType + " of beans" );
+			}
+			beans = selected.toArray();
+		}
+
+		/**
+		 * Replaces the content of a non empty collection of beans of the requested type by {@code fanOut} valid beans of
+		 * the same class.
+		 *
+		 * @return whether the property value was such a collection
+		 */
+		@SuppressWarnings("unchecked")
+		private boolean refill(Object value, Map<Class<?>, Integer> indexes) {
+			Collection<Object> elements;
+			if ( collectionType == CollectionType.LIST && value instanceof List ) {
+				elements = (List<Object>) value;
+			}
+			else if ( collectionType == CollectionType.MAP && value instanceof Map ) {
+				elements = ( (Map<String, Object>) value ).values();
+			}
+			else {
+				return false;
+			}
+			if ( elements.isEmpty() ) {
+				return false;
+			}
+
+			int i = indexes.get( elements.iterator().next().getClass() );
+			elements.clear();
+			for ( int k = 0; k < fanOut; k++ ) {
+				Object element = Holder.SUPPLIERS[i].get();
+				Holder.VALUE_ASSIGNERS[i].accept( element, true );
+				if ( collectionType == CollectionType.LIST ) {
+					( (List<Object>) value ).add( element );
+				}
+				else {
+					( (Map<String, Object>) value ).put( "key" + k, element );
+				}
+			}
+			return true;
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+
+		public Object next() {
+			Object bean = beans[index];
+			index = ( index + 1 ) % beans.length;
+			return bean;
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 10)
+	public void testFanOutValidation(FanOutState state, Blackhole bh) {
+		Set<ConstraintViolation<Object>> constraintViolations = state.validator.validate( state.next() );
+		bh.consume( constraintViolations );
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.GroupSequence;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import javax.validation.groups.Default;
+
+import org.apache.bval.bench.generated.Holder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tests the speed of validating beans that are already parsed when explicit groups are requested.
+ * <p>
+ * The groups are the ones created by the generator and exposed through {@link Holder#GROUPS}. Every group mix validates
+ * the whole population, the cost of the beans redefining their default group through a {@link GroupSequence} being
+ * measured on its own by {@link #testRedefinedSequenceValidation(RedefinedSequenceState, Blackhole)}.
+ */
+public class GroupValidationSpeedBenchmark {
+
+	public enum GroupMix {
+		/**
+		 * Validates every bean with the {@link Default} group only.
+		 */
+		DEFAULT,
+		/**
+		 * Validates every bean with the first generated group.
+		 */
+		SINGLE_GROUP,
+		/**
+		 * Validates every bean with all the generated groups at once.
+		 */
+		ALL_GROUPS
+	}
+
+	@State(Scope.Benchmark)
+	public static class GroupValidationSpeedState {
+
+		@Param({ "DEFAULT", "SINGLE_GROUP", "ALL_GROUPS" })
+		public GroupMix groupMix;
+
+		public volatile Validator validator;
+
+		public volatile List<Object> beans;
+
+		public volatile Class<?>[] groups;
+
+		@Setup
+		public void setup() {
+			if ( groupMix != GroupMix.DEFAULT && Holder.GROUPS.length == 0 ) {
+				throw new IllegalArgumentException( "No generated group to validate with " + groupMix + ", generator.numgroups is 0" );
+			}
+
+			ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+
+			beans = new Holder().beans;
+			switch ( groupMix ) {
+				case DEFAULT:
+					groups = new Class<?>[] { Default.class };
+					break;
+				case SINGLE_GROUP:
+					groups = new Class<?>[] { Holder.GROUPS[0] };
+					break;
+				case ALL_GROUPS:
+					groups = Holder.GROUPS;
+					break;
+				default:
+					throw new IllegalArgumentException( "Unknown group mix: " + groupMix );
+			}
+		}
+	}
+
+	/**
+	 * Holds, out of the generated beans, only the ones redefining their default group through a {@link GroupSequence},
+	 * so that the sequence is resolved on every call.
+	 */
+	@State(Scope.Benchmark)
+	public static class RedefinedSequenceState {
+
+		public volatile Validator validator;
+
+		public volatile List<Object> beans;
+
+		@Setup
+		public void setup() {
+			ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+
+			beans = new ArrayList<>();
+			for ( Object o : new Holder().beans ) {
+				if ( o.getClass().isAnnotationPresent( GroupSequence.class ) ) {
+					beans.add( o );
+				}
+			}
+			if ( beans.isEmpty() ) {
+				throw new IllegalArgumentException( "No generated bean redefines its default group, generator.numgroups is " + Holder.GROUPS.length );
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Fork(value = 1)
+	@Threads(50)
+	@Warmup(iterations = 20)
+	@Measurement(iterations = 30)
+	public void testGroupValidation(GroupValidationSpeedState state, Blackhole bh) {
+		for ( Object o : state.beans ) {
+			Set<ConstraintViolation<Object>> constraintViolations = state.validator.validate( o, state.groups );
+			bh.consume( constraintViolations );
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Fork(value = 1)
+	@Threads(50)
+	@Warmup(iterations = 20)
+	@Measurement(iterations = 30)
+	public void testRedefinedSequenceValidation(RedefinedSequenceState state, Blackhole bh) {
+		for ( Object o : state.beans ) {
+			Set<ConstraintViolation<Object>> constraintViolations = state.validator.validate( o );
+			bh.consume( constraintViolations );
+		}
+	}
+}
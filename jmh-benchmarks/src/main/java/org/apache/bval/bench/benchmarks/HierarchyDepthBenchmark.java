@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.apache.bval.bench.generated.Holder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tests how the depth of a class and interface hierarchy affects the building of the metadata, merged across the
+ * hierarchy, and the validation.
+ * <p>
+ * A hierarchy is generated for every depth up to {@code generator.hierarchy.depth}, and its leaf class is listed by
+ * {@code Holder.HIERARCHY_BEANS}. Every level of a hierarchy is a class implementing an interface, both redefining the
+ * constraints of a property of the level above and constraining a property of their own, so that the constraints of a
+ * bean grow linearly with the depth of its hierarchy.
+ */
+public class HierarchyDepthBenchmark {
+
+	public enum ValueValidity {
+		/**
+		 * Values breaking no constraint of the hierarchy.
+		 */
+		VALID,
+		/**
+		 * Values breaking 3 constraints per level of the hierarchy.
+		 */
+		INVALID
+	}
+
+	@State(Scope.Benchmark)
+	public static class HierarchyValidationState {
+
+		@Param({ "1", "2", "4", "6" })
+		public int hierarchyDepth;
+
+		@Param({ "VALID", "INVALID" })
+		public ValueValidity valueValidity;
+
+		public volatile Validator validator;
+
+		public volatile Object bean;
+
+		private ValidatorFactory factory;
+
+		@Setup
+		public void setup() throws ReflectiveOperationException {
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+
+			boolean valid = valueValidity == ValueValidity.VALID;
+			bean = hierarchyBean( hierarchyDepth ).getConstructor( boolean.class ).newInstance( valid );
+			if ( validator.validate( bean ).isEmpty() != valid ) {
+				throw new IllegalStateException( "Expected " + valueValidity + " values for " + bean.getClass().getName() );
+			}
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+	}
+
+	/**
+	 * Retrieves the metadata of the bean in a new factory at each invocation.
+	 */
+	@State(Scope.Thread)
+	public static class HierarchyMetadataState {
+
+		@Param({ "1", "2", "4", "6" })
+		public int hierarchyDepth;
+
+		public Validator validator;
+
+		public Class<?> beanClass;
+
+		private ValidatorFactory factory;
+
+		@Setup
+		public void setup() {
+			beanClass = hierarchyBean( hierarchyDepth );
+		}
+
+		@Setup(Level.Invocation)
+		public void newFactory() {
+			if ( factory != null ) {
+				factory.close();
+			}
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+			// Excludes the lazy initialization of the factory from the measurement
+			validator.getConstraintsForClass( Object.class );
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public Object testValidation(HierarchyValidationState state) {
+		return state.validator.validate( state.bean );
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 10)
+	public boolean testMetadata(HierarchyMetadataState state) {
+		return state.validator.getConstraintsForClass( state.beanClass ).isBeanConstrained();
+	}
+
+	private static Class<?> hierarchyBean(int hierarchyDepth) {
+		if ( hierarchyDepth < 1 || hierarchyDepth > Holder.HIERARCHY_BEANS.length ) {
+			throw new IllegalArgumentException( "No hierarchy of depth " + hierarchyDepth
+					+ ", generate the beans with generator.hierarchy.depth=" + hierarchyDepth + " or more" );
+		}
+		return Holder.HIERARCHY_BEANS[hierarchyDepth - 1];
+	}
+}
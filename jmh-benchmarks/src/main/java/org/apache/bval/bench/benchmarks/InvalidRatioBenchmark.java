@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.apache.bval.bench.generated.Holder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tests the validation of populations mixing valid and invalid beans in a given ratio, from the happy path only
+ * ({@code 0}) to the violation path only ({@code 1}).
+ * <p>
+ * The invalid beans hold an invalid value in every constrained basic field, the valid beans do not break any
+ * constraint, including in their nested beans.
+ */
+public class InvalidRatioBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class InvalidRatioState {
+
+		@Param({ "0", "0.01", "0.2", "1" })
+		public double invalidRatio;
+
+		public volatile Validator validator;
+
+		public volatile Object[] beans;
+
+		private ValidatorFactory factory;
+
+		@Setup
+		public void setup() {
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+			beans = new Holder( invalidRatio ).beans.toArray();
+
+			int invalid = 0;
+			for ( Object o : beans ) {
+				if ( !validator.validate( o ).isEmpty() ) {
+					invalid++;
+				}
+			}
+			int expected = (int) ( beans.length * invalidRatio );
+			if ( invalid != expected ) {
+				throw new IllegalStateException( "Expected " + expected + " invalid beans but got " + invalid );
+			}
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public void testValidation(InvalidRatioState state, Blackhole bh) {
+		for ( Object o : state.beans ) {
+			Set<ConstraintViolation<Object>> constraintViolations = state.validator.validate( o );
+			bh.consume( constraintViolations );
+		}
+	}
+}
@@ -0,0 +1,332 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.Configuration;
+import javax.validation.MessageInterpolator;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.apache.bval.bench.generated.Holder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tests the cost of the interpolation of the violation messages, comparing the default interpolator of the provider
+ * with an interpolator only resolving the constraint attributes and with an interpolator caching the messages.
+ * <p>
+ * The message templates of the generated beans are chosen at generation time with the {@code generator.messages}
+ * property: plain literals, constraint attributes, expression language, resource bundle keys or a mix of them.
+ * <p>
+ * {@link #testInterpolation} interpolates the message of one violation of the invalid beans per operation, its result
+ * being the cost of one violation. {@link #testValidation} validates the invalid beans with the interpolator, and
+ * counts the violations, reported as the {@code violations} secondary result.
+ */
+public class MessageInterpolationBenchmark {
+
+	public enum InterpolatorType {
+		/**
+		 * The default interpolator of the provider.
+		 */
+		DEFAULT,
+		/**
+		 * Only resolves the constraint attributes, leaving resource bundle keys and expressions as they are.
+		 */
+		PARAMETER_ONLY,
+		/**
+		 * Caches the messages of the default interpolator.
+		 */
+		CACHING
+	}
+
+	@State(Scope.Thread)
+	public static class MessageInterpolationState {
+
+		@Param({ "DEFAULT", "PARAMETER_ONLY", "CACHING" })
+		public InterpolatorType interpolatorType;
+
+		public volatile Validator validator;
+
+		public volatile MessageInterpolator interpolator;
+
+		/**
+		 * The invalid beans.
+		 */
+		public volatile Object[] beans;
+
+		/**
+		 * The message templates of the violations of the invalid beans.
+		 */
+		public volatile String[] templates;
+
+		/**
+		 * The interpolation contexts of the violations, in the order of the templates.
+		 */
+		public volatile MessageInterpolator.Context[] contexts;
+
+		private int cursor;
+
+		private ValidatorFactory factory;
+
+		@Setup
+		public void setup() {
+			Configuration<?> configuration = Validation.byDefaultProvider().configure();
+			MessageInterpolator defaultInterpolator = configuration.getDefaultMessageInterpolator();
+			switch ( interpolatorType ) {
+				case PARAMETER_ONLY:
+					interpolator = new ParameterOnlyMessageInterpolator();
+					break;
+				case CACHING:
+					interpolator = new CachingMessageInterpolator( defaultInterpolator );
+					break;
+				default:
+					interpolator = defaultInterpolator;
+			}
+
+			List<Object> beans = new ArrayList<>();
+			for ( int i = 0; i < Holder.SUPPLIERS.length; i++ ) {
+				Object bean = Holder.SUPPLIERS[i].get();
+				Holder.VALUE_ASSIGNERS[i].accept( bean, false );
+				beans.add( bean );
+			}
+			this.beans = beans.toArray();
+
+			// Records the interpolations of a first validation
+			RecordingMessageInterpolator recorder = new RecordingMessageInterpolator( defaultInterpolator );
+			ValidatorFactory recordingFactory = Validation.byDefaultProvider().configure()
+					.messageInterpolator( recorder )
+					.buildValidatorFactory();
+			Validator recordingValidator = recordingFactory.getValidator();
+			for ( Object bean : this.beans ) {
+				recordingValidator.validate( bean );
+			}
+			recordingFactory.close();
+			if ( recorder.templates.isEmpty() ) {
+				throw new IllegalStateException( "The invalid beans have no violation" );
+			}
+			templates = recorder.templates.toArray( new String[0] );
+			contexts = recorder.contexts.toArray( new MessageInterpolator.Context[0] );
+
+			factory = Validation.byDefaultProvider().configure()
+					.messageInterpolator( interpolator )
+					.buildValidatorFactory();
+			validator = factory.getValidator();
+		}
+
+		public int nextViolation() {
+			if ( cursor == templates.length ) {
+				cursor = 0;
+			}
+			return cursor++;
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public String testInterpolation(MessageInterpolationState state) {
+		int violation = state.nextViolation();
+		return state.interpolator.interpolate( state.templates[violation], state.contexts[violation] );
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public void testValidation(MessageInterpolationState state, ViolationCounter counter, Blackhole bh) {
+		for ( Object bean : state.beans ) {
+			int violations = state.validator.validate( bean ).size();
+			counter.violations += violations;
+			bh.consume( violations );
+		}
+	}
+
+	/**
+	 * Delegates to another interpolator and keeps the templates and contexts it is given.
+	 */
+	private static class RecordingMessageInterpolator implements MessageInterpolator {
+
+		private final MessageInterpolator delegate;
+
+		private final List<String> templates = new ArrayList<>();
+
+		private final List<Context> contexts = new ArrayList<>();
+
+		private RecordingMessageInterpolator(MessageInterpolator delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public String interpolate(String messageTemplate, Context context) {
+			templates.add( messageTemplate );
+			contexts.add( context );
+			return delegate.interpolate( messageTemplate, context );
+		}
+
+		@Override
+		public String interpolate(String messageTemplate, Context context, Locale locale) {
+			templates.add( messageTemplate );
+			contexts.add( context );
+			return delegate.interpolate( messageTemplate, context, locale );
+		}
+	}
+
+	/**
+	 * Replaces the {@code {attribute}} parameters by the attributes of the constraint, without resolving resource
+	 * bundle keys nor evaluating expressions.
+	 */
+	private static class ParameterOnlyMessageInterpolator implements MessageInterpolator {
+
+		@Override
+		public String interpolate(String messageTemplate, Context context) {
+			Map<String, Object> attributes = context.getConstraintDescriptor().getAttributes();
+			StringBuilder message = new StringBuilder( messageTemplate.length() );
+			int start = 0;
+			int open = messageTemplate.indexOf( '{' );
+			while ( open >= 0 ) {
+				int close = messageTemplate.indexOf( '}', open );
+				if ( close < 0 ) {
+					break;
+				}
+				Object attribute = attributes.get( messageTemplate.substring( open + 1, close ) );
+				if ( attribute != null && ( open == 0 || messageTemplate.charAt( open - 1 ) != '$' ) ) {
+					message.append( messageTemplate, start, open ).append( toString( attribute ) );
+					start = close + 1;
+				}
+				open = messageTemplate.indexOf( '{', close );
+			}
+			return message.append( messageTemplate, start, messageTemplate.length() ).toString();
+		}
+
+		@Override
+		public String interpolate(String messageTemplate, Context context, Locale locale) {
+			return interpolate( messageTemplate, context );
+		}
+
+		private static String toString(Object attribute) {
+			if ( attribute.getClass().isArray() ) {
+				Object[] elements = new Object[Array.getLength( attribute )];
+				for ( int i = 0; i < elements.length; i++ ) {
+					elements[i] = Array.get( attribute, i );
+				}
+				return Arrays.toString( elements );
+			}
+			return attribute.toString();
+		}
+	}
+
+	/**
+	 * Caches the messages of another interpolator by template, constraint and locale, and by validated value when the
+	 * template contains an expression.
+	 */
+	private static class CachingMessageInterpolator implements MessageInterpolator {
+
+		private final MessageInterpolator delegate;
+
+		private final Map<MessageKey, String> messages = new ConcurrentHashMap<>();
+
+		private CachingMessageInterpolator(MessageInterpolator delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public String interpolate(String messageTemplate, Context context) {
+			return interpolate( messageTemplate, context, Locale.getDefault() );
+		}
+
+		@Override
+		public String interpolate(String messageTemplate, Context context, Locale locale) {
+			return messages.computeIfAbsent( new MessageKey( messageTemplate, context, locale ),
+					key -> delegate.interpolate( messageTemplate, context, locale ) );
+		}
+	}
+
+	private static class MessageKey {
+
+		private final String messageTemplate;
+
+		private final Object constraintDescriptor;
+
+		private final Object validatedValue;
+
+		private final Locale locale;
+
+		private final int hashCode;
+
+		private MessageKey(String messageTemplate, MessageInterpolator.Context context, Locale locale) {
+			this.messageTemplate = messageTemplate;
+			this.constraintDescriptor = context.getConstraintDescriptor();
+			this.validatedValue = messageTemplate.contains( "${" ) ? context.getValidatedValue() : null;
+			this.locale = locale;
+			this.hashCode = Objects.hash( messageTemplate, constraintDescriptor, validatedValue, locale );
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if ( !( obj instanceof MessageKey ) ) {
+				return false;
+			}
+			MessageKey other = (MessageKey) obj;
+			return messageTemplate.equals( other.messageTemplate )
+					&& constraintDescriptor.equals( other.constraintDescriptor )
+					&& Objects.equals( validatedValue, other.validatedValue )
+					&& locale.equals( other.locale );
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+
+import org.apache.bval.bench.generated.Holder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tests the cost of building the metadata of a single bean class, depending on the number of bean classes already
+ * known by the factory.
+ * <p>
+ * Every invocation retrieves the metadata of a bean class never seen by the current factory. Once {@code beanCount}
+ * classes have been retrieved, the factory is rebuilt outside of the measurement, so the score is the average cost per
+ * bean class of building the metadata of {@code beanCount} classes.
+ * <p>
+ * The bean classes are drawn in a seeded random order from the generated graph (the beans and their superclasses),
+ * optionally restricted to a given inheritance depth and to a given average number of constraints per constrained
+ * property. The setup fails when the generated graph has fewer matching classes than {@code beanCount}: generate a
+ * larger scenario to measure larger counts.
+ */
+public class MetadataBuildingBenchmark {
+
+	private static final String ANY = "ANY";
+
+	private static final long SEED = 12L;
+
+	@State(Scope.Thread)
+	public static class MetadataBuildingState {
+
+		@Param({ "10", "100" })
+		public int beanCount;
+
+		/**
+		 * The number of generated superclasses of the bean classes, or {@code ANY}.
+		 */
+		@Param({ ANY })
+		public String inheritanceDepth;
+
+		/**
+		 * The rounded average number of constraints per constrained property of the bean classes, or {@code ANY}.
+		 */
+		@Param({ ANY })
+		public String constraintsPerProperty;
+
+		public Validator validator;
+
+		public Class<?> beanClass;
+
+		private Class<?>[] beanClasses;
+
+		private int cursor;
+
+		private ValidatorFactory factory;
+
+		@Setup
+		public void setup() {
+			List<Class<?>> candidates = new ArrayList<>( generatedClasses().values() );
+			ValidatorFactory inspectionFactory = Validation.buildDefaultValidatorFactory();
+			try {
+				Validator inspector = inspectionFactory.getValidator();
+				candidates.removeIf( c -> !matches( inheritanceDepth, inheritanceDepth( c ) )
+						|| !matches( constraintsPerProperty, constraintsPerProperty( inspector.getConstraintsForClass( c ) ) ) );
+			}
+			finally {
+				inspectionFactory.close();
+			}
+			if ( candidates.isEmpty() ) {
+				throw new IllegalArgumentException( "No generated bean class with inheritance depth " + inheritanceDepth
+						+ " and " + constraintsPerProperty + " constraints per property" );
+			}
+			if ( candidates.size() < beanCount ) {
+				throw new IllegalArgumentException( "Only " + candidates.size() + " generated bean classes match, fewer than "
+						+ beanCount + ": generate a larger scenario" );
+			}
+
+			Collections.shuffle( candidates, new Random( SEED ) );
+			beanClasses = candidates.subList( 0, beanCount ).toArray( new Class<?>[0] );
+			cursor = beanClasses.length;
+		}
+
+		@Setup(Level.Invocation)
+		public void nextBeanClass() {
+			if ( cursor == beanClasses.length ) {
+				if ( factory != null ) {
+					factory.close();
+				}
+				factory = Validation.buildDefaultValidatorFactory();
+				validator = factory.getValidator();
+				cursor = 0;
+			}
+			beanClass = beanClasses[cursor++];
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+
+		/**
+		 * @return the generated bean classes and their generated superclasses, indexed by name
+		 */
+		private static TreeMap<String, Class<?>> generatedClasses() {
+			TreeMap<String, Class<?>> classes = new TreeMap<>();
+			for ( Object bean : new Holder().beans ) {
+				for ( Class<?> c = bean.getClass(); c != Object.class; c = c.getSuperclass() ) {
+					classes.put( c.getName(), c );
+				}
+			}
+			return classes;
+		}
+
+		private static int inheritanceDepth(Class<?> beanClass) {
+			int depth = 0;
+			for ( Class<?> c = beanClass.getSuperclass(); c != Object.class; c = c.getSuperclass() ) {
+				depth++;
+			}
+			return depth;
+		}
+
+		private static int constraintsPerProperty(BeanDescriptor descriptor) {
+			int properties = 0;
+			int constraints = 0;
+			for ( PropertyDescriptor property : descriptor.getConstrainedProperties() ) {
+				properties++;
+				constraints += property.getConstraintDescriptors().size();
+			}
+			return properties == 0 ? 0 : Math.round( (float) constraints / properties );
+		}
+
+		private static boolean matches(String param, int value) {
+			return ANY.equals( param ) || Integer.parseInt( param ) == value;
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 10)
+	public void testMetadataBuilding(MetadataBuildingState state, Blackhole bh) {
+		bh.consume( state.validator.getConstraintsForClass( state.beanClass ).isBeanConstrained() );
+	}
+}
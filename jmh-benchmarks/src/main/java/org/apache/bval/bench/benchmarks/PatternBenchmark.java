@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.apache.bval.bench.generated.Holder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tests the {@code @Pattern} constraint by complexity of the regular expression and length of the validated value.
+ * <p>
+ * The regular expressions and their sample values come from the pattern library of the generator: the generated
+ * {@code PatternBean} has a property per regular expression, and {@code Holder.PATTERN_SAMPLES} a valid and an invalid
+ * value per regular expression and length, among the lengths its format allows. A sample is named after its regular
+ * expression and its length, e.g. {@code IBAN_16}. {@link #testValidateValue} validates a sample with {@code validateValue},
+ * {@link #testPrecompiledMatch} matches it with a precompiled {@link Pattern}, the cost of the regular expression
+ * alone, and {@link #testCompiledMatch} compiles the regular expression before matching it, the cost of a provider not
+ * caching the compiled patterns.
+ * <p>
+ * The nested quantifier of the {@code BACKTRACKING} regular expression takes an exponential time in the length of the
+ * invalid values: {@link #testBacktracking} is kept apart, with shorter values, so as not to drown the other results,
+ * and its setup fails if the match does not take at least {@value #MIN_BACKTRACKING_GROWTH} times as long on the invalid
+ * value as on its second half, a linear match taking about twice as long.
+ */
+public class PatternBenchmark {
+
+	private static final int MIN_BACKTRACKING_GROWTH = 10;
+
+	public enum ValueValidity {
+		/**
+		 * Values matching the regular expression.
+		 */
+		VALID,
+		/**
+		 * Values only differing from the valid ones at their end.
+		 */
+		INVALID
+	}
+
+	@State(Scope.Benchmark)
+	public static class PatternState {
+
+		@Param({ "ALPHA_16", "ALPHA_64", "ALPHA_256", "EMAIL_16", "EMAIL_64", "EMAIL_256", "UUID_36", "IBAN_16", "URL_64",
+				"URL_256" })
+		public String sample;
+
+		@Param({ "VALID", "INVALID" })
+		public ValueValidity valueValidity;
+
+		public volatile Validator validator;
+
+		public volatile String propertyName;
+
+		public volatile String regexp;
+
+		public volatile Pattern compiledPattern;
+
+		public volatile String value;
+
+		private ValidatorFactory factory;
+
+		@Setup
+		public void setup() throws NoSuchFieldException {
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+
+			int separator = sample.lastIndexOf( '_' );
+			String pattern = sample.substring( 0, separator );
+			int length = Integer.parseInt( sample.substring( separator + 1 ) );
+			propertyName = pattern.toLowerCase();
+			regexp = regexp( propertyName );
+			compiledPattern = Pattern.compile( regexp );
+			value = sample( pattern, length, valueValidity );
+			checkValidity( validator, propertyName, value, valueValidity );
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class BacktrackingState {
+
+		@Param({ "12", "16", "20" })
+		public int backtrackingLength;
+
+		@Param({ "VALID", "INVALID" })
+		public ValueValidity valueValidity;
+
+		public volatile Validator validator;
+
+		public volatile String value;
+
+		private ValidatorFactory factory;
+
+		@Setup
+		public void setup() throws NoSuchFieldException {
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+
+			value = sample( "BACKTRACKING", backtrackingLength, valueValidity );
+			checkValidity( validator, "backtracking", value, valueValidity );
+			checkBacktracking( Pattern.compile( regexp( "backtracking" ) ),
+					sample( "BACKTRACKING", backtrackingLength, ValueValidity.INVALID ) );
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 5)
+	public Object testValidateValue(PatternState state) {
+		return state.validator.validateValue( Holder.PATTERN_BEAN, state.propertyName, state.value );
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 5)
+	public boolean testPrecompiledMatch(PatternState state) {
+		return state.compiledPattern.matcher( state.value ).matches();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 5)
+	public boolean testCompiledMatch(PatternState state) {
+		return Pattern.compile( state.regexp ).matcher( state.value ).matches();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 5)
+	public Object testBacktracking(BacktrackingState state) {
+		return state.validator.validateValue( Holder.PATTERN_BEAN, "backtracking", state.value );
+	}
+
+	/**
+	 * @return The regular expression of the given property of the generated {@code PatternBean}.
+	 */
+	private static String regexp(String propertyName) throws NoSuchFieldException {
+		return Holder.PATTERN_BEAN.getDeclaredField( propertyName )
+				.getAnnotation( javax.validation.constraints.Pattern.class )
+				.regexp();
+	}
+
+	/**
+	 * @return The sample value of the given regular expression and length in {@code Holder.PATTERN_SAMPLES}.
+	 */
+	private static String sample(String pattern, int length, ValueValidity valueValidity) {
+		for ( Object[] row : Holder.PATTERN_SAMPLES ) {
+			if ( row[0].equals( pattern ) && row[1].equals( length ) ) {
+				return (String) ( valueValidity == ValueValidity.VALID ? row[2] : row[3] );
+			}
+		}
+		throw new IllegalArgumentException( "No sample of length " + length + " for the " + pattern + " regular expression,"
+				+ " check the generator.patterns properties of the generated beans and the lengths of its format" );
+	}
+
+	/**
+	 * Checks that the match of the invalid value takes at least {@link #MIN_BACKTRACKING_GROWTH} times as long as the
+	 * one of its second half.
+	 */
+	private static void checkBacktracking(Pattern pattern, String invalidValue) {
+		String half = invalidValue.substring( invalidValue.length() / 2 );
+		// Warms the matches up first
+		bestMatchNanos( pattern, half );
+		bestMatchNanos( pattern, invalidValue );
+		long halfNanos = bestMatchNanos( pattern, half );
+		long fullNanos = bestMatchNanos( pattern, invalidValue );
+		if ( fullNanos < MIN_BACKTRACKING_GROWTH * halfNanos ) {
+			throw new IllegalStateException( "The match of " + pattern + " does not grow exponentially on this JDK: "
+					+ halfNanos + " ns for " + half.length() + " characters, " + fullNanos + " ns for "
+					+ invalidValue.length() );
+		}
+	}
+
+	private static long bestMatchNanos(Pattern pattern, String value) {
+		long best = Long.MAX_VALUE;
+		for ( int i = 0; i < 5; i++ ) {
+			long start = System.nanoTime();
+			pattern.matcher( value ).matches();
+			best = Math.min( best, System.nanoTime() - start );
+		}
+		return best;
+	}
+
+	private static void checkValidity(Validator validator, String propertyName, String value, ValueValidity valueValidity) {
+		if ( validator.validateValue( Holder.PATTERN_BEAN, propertyName, value ).isEmpty() != ( valueValidity == ValueValidity.VALID ) ) {
+			throw new IllegalStateException( "Expected a " + valueValidity + " value for " + propertyName + ": " + value );
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.apache.bval.bench.generated.Holder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tests the validation of single properties, as done when validating a form field by field, compared to the
+ * validation of whole beans.
+ * <p>
+ * An operation validates every constrained basic property declared by the first level beans, as listed in the
+ * generated property table ({@code Holder.PROPERTIES}), one at a time, with {@code validateProperty} on a bean holding
+ * valid or invalid values, or with {@code validateValue} and the sample values of the table. {@link #testValidateBean}
+ * validates the same beans once each, their inherited properties and nested beans included.
+ */
+public class PropertyValidationBenchmark {
+
+	public enum ValueValidity {
+		/**
+		 * Values breaking no constraint.
+		 */
+		VALID,
+		/**
+		 * Values breaking at least one constraint of their property.
+		 */
+		INVALID
+	}
+
+	@State(Scope.Benchmark)
+	public static class PropertyValidationState {
+
+		@Param({ "VALID", "INVALID" })
+		public ValueValidity valueValidity;
+
+		public volatile Validator validator;
+
+		/**
+		 * The beans holding the values, one per property.
+		 */
+		public volatile Object[] beans;
+
+		public volatile Class<?>[] beanTypes;
+
+		public volatile String[] propertyNames;
+
+		public volatile Object[] values;
+
+		/**
+		 * The distinct beans.
+		 */
+		public volatile Object[] distinctBeans;
+
+		private ValidatorFactory factory;
+
+		@Setup
+		public void setup() {
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+
+			boolean valid = valueValidity == ValueValidity.VALID;
+			List<Object> beans = new ArrayList<>();
+			List<String> propertyNames = new ArrayList<>();
+			List<Object> values = new ArrayList<>();
+			List<Object> distinctBeans = new ArrayList<>();
+			for ( int i = 0; i < Holder.SUPPLIERS.length; i++ ) {
+				Object bean = Holder.SUPPLIERS[i].get();
+				Holder.VALUE_ASSIGNERS[i].accept( bean, valid );
+				distinctBeans.add( bean );
+				for ( Object[] row : Holder.PROPERTIES[i].get() ) {
+					beans.add( bean );
+					propertyNames.add( (String) row[0] );
+					values.add( valid ? row[1] : row[2] );
+				}
+			}
+			this.beans = beans.toArray();
+			this.beanTypes = beans.stream().map( Object::getClass ).toArray( Class<?>[]::new );
+			this.propertyNames = propertyNames.toArray( new String[0] );
+			this.values = values.toArray();
+			this.distinctBeans = distinctBeans.toArray();
+
+			for ( int i = 0; i < this.beans.length; i++ ) {
+				if ( validator.validateProperty( this.beans[i], this.propertyNames[i] ).isEmpty() != valid
+						|| validator.validateValue( this.beanTypes[i], this.propertyNames[i], this.values[i] ).isEmpty() != valid ) {
+					throw new IllegalStateException( "Expected " + valueValidity + " values for " + this.beanTypes[i].getName() + "." + this.propertyNames[i] );
+				}
+			}
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public void testValidateProperty(PropertyValidationState state, Blackhole bh) {
+		for ( int i = 0; i < state.beans.length; i++ ) {
+			bh.consume( state.validator.validateProperty( state.beans[i], state.propertyNames[i] ) );
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public void testValidateValue(PropertyValidationState state, Blackhole bh) {
+		for ( int i = 0; i < state.beanTypes.length; i++ ) {
+			bh.consume( state.validator.validateValue( state.beanTypes[i], state.propertyNames[i], state.values[i] ) );
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public void testValidateBean(PropertyValidationState state, Blackhole bh) {
+		for ( Object bean : state.distinctBeans ) {
+			bh.consume( state.validator.validate( bean ) );
+		}
+	}
+}
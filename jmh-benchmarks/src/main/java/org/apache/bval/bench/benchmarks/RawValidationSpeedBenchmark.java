@@ -18,6 +18,9 @@
  */
 package org.apache.bval.bench.benchmarks;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -33,14 +36,20 @@ import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
 
 /**
  * Tests the speed of validating beans that are already parsed.
+ * <p>
+ * Besides the throughput of validating the whole population, the latency distribution of validating a single bean
+ * per invocation is sampled, optionally restricted to a single generated bean class.
  */
 public class RawValidationSpeedBenchmark {
 
@@ -58,6 +67,63 @@ public class RawValidationSpeedBenchmark {
 		}
 	}
 
+	@State(Scope.Benchmark)
+	public static class SingleBeanValidationState {
+
+		/**
+		 * The simple name of the generated bean class to validate, or an empty string to validate all of them.
+		 */
+		@Param({ "" })
+		public String beanClass;
+
+		public volatile Validator validator;
+
+		public volatile Object[] beans;
+
+		@Setup
+		public void setup() {
+			ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+
+			List<Object> selected = new ArrayList<>();
+			for ( Object o : new Holder().beans ) {
+				if ( beanClass.isEmpty() || o.getClass().getSimpleName().equals( beanClass ) ) {
+					selected.add( o );
+				}
+			}
+			if ( selected.isEmpty() ) {
+				throw new IllegalArgumentException( "No generated bean of class " + beanClass );
+			}
+			beans = selected.toArray();
+		}
+	}
+
+	/**
+	 * Per-thread cursor walking the beans in round-robin, starting from a seeded random position so that the threads
+	 * do not validate the same bean at the same time.
+	 */
+	@State(Scope.Thread)
+	public static class RoundRobinCursor {
+
+		private static final long SEED = 12L;
+
+		private Object[] beans;
+
+		private int index;
+
+		@Setup
+		public void setup(SingleBeanValidationState state, ThreadParams threadParams) {
+			beans = state.beans;
+			index = new Random( SEED + threadParams.getThreadIndex() ).nextInt( beans.length );
+		}
+
+		public Object next() {
+			Object bean = beans[index];
+			index = ( index + 1 ) % beans.length;
+			return bean;
+		}
+	}
+
 	@Benchmark
 	@BenchmarkMode(Mode.Throughput)
 	@OutputTimeUnit(TimeUnit.SECONDS)
@@ -71,4 +137,16 @@ public class RawValidationSpeedBenchmark {
 			bh.consume( constraintViolations );
 		}
 	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 20)
+	@Measurement(iterations = 30)
+	public void testSingleBeanValidation(SingleBeanValidationState state, RoundRobinCursor cursor, Blackhole bh) {
+		Set<ConstraintViolation<Object>> constraintViolations = state.validator.validate( cursor.next() );
+		bh.consume( constraintViolations );
+	}
 }
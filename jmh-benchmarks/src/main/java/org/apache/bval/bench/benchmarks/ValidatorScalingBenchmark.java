@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.apache.bval.bench.generated.Holder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tests how the validation throughput scales with the number of threads, depending on how the {@link Validator}
+ * instances are shared between them.
+ * <p>
+ * The number of threads is not a parameter of the benchmark itself: run it with {@code -Dscaling=true} to sweep the
+ * thread counts (see {@code ScalingSweep}).
+ */
+public class ValidatorScalingBenchmark {
+
+	public enum ValidatorSharing {
+		/**
+		 * All the threads use the same validator.
+		 */
+		SHARED_VALIDATOR,
+		/**
+		 * Every thread gets its own validator from the same factory.
+		 */
+		PER_THREAD_VALIDATOR,
+		/**
+		 * Every thread builds its own factory.
+		 */
+		PER_THREAD_FACTORY
+	}
+
+	@State(Scope.Benchmark)
+	public static class SharedState {
+
+		@Param({ "SHARED_VALIDATOR", "PER_THREAD_VALIDATOR", "PER_THREAD_FACTORY" })
+		public ValidatorSharing sharing;
+
+		public volatile ValidatorFactory factory;
+
+		public volatile Validator validator;
+
+		public volatile List<Object> beans;
+
+		@Setup
+		public void setup() {
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+			beans = new Holder().beans;
+		}
+
+		@TearDown
+		public void teardown() {
+			factory.close();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ThreadState {
+
+		public Validator validator;
+
+		private ValidatorFactory ownFactory;
+
+		@Setup
+		public void setup(SharedState shared) {
+			switch ( shared.sharing ) {
+				case SHARED_VALIDATOR:
+					validator = shared.validator;
+					break;
+				case PER_THREAD_VALIDATOR:
+					validator = shared.factory.getValidator();
+					break;
+				case PER_THREAD_FACTORY:
+					ownFactory = Validation.buildDefaultValidatorFactory();
+					validator = ownFactory.getValidator();
+					break;
+				default:
+					throw new IllegalArgumentException( "Unknown validator sharing: " + shared.sharing );
+			}
+		}
+
+		@TearDown
+		public void teardown() {
+			if ( ownFactory != null ) {
+				ownFactory.close();
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public void testValidation(SharedState shared, ThreadState state, Blackhole bh) {
+		for ( Object o : shared.beans ) {
+			Set<ConstraintViolation<Object>> constraintViolations = state.validator.validate( o );
+			bh.consume( constraintViolations );
+		}
+	}
+}
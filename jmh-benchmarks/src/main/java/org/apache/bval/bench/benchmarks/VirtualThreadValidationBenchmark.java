@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.apache.bval.bench.LatencyProfiler;
+import org.apache.bval.bench.generated.Holder;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tests the validation of beans submitted as independent tasks to an executor, the way a request-per-thread server
+ * would do it.
+ * <p>
+ * Every invocation submits a wave of {@code concurrency} validations and waits for all of them to complete. The
+ * {@code validations} counter gives the number of completed validations per second. The p50/p99/p99.9 percentiles of
+ * the time between the submission and the completion of a single validation are reported as the {@code latency.*}
+ * secondary results when the {@link LatencyProfiler} is enabled, which {@link org.apache.bval.bench.BenchmarkRunner}
+ * does by default.
+ * <p>
+ * Virtual threads require a Java 21+ runtime: on older runtimes the {@code VIRTUAL} executor fails at setup. Running
+ * with {@code -jvmArgsAppend -Djdk.tracePinnedThreads=full} reports the virtual threads pinned by the provider.
+ */
+public class VirtualThreadValidationBenchmark {
+
+	public enum ExecutorType {
+		/**
+		 * A new virtual thread per validation.
+		 */
+		VIRTUAL {
+			@Override
+			ExecutorService create() {
+				try {
+					return (ExecutorService) Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" ).invoke( null );
+				}
+				catch (ReflectiveOperationException e) {
+					throw new IllegalStateException( "Virtual threads are not supported by this JVM: " + System.getProperty( "java.version" ), e );
+				}
+			}
+		},
+		/**
+		 * A fixed pool of platform threads, one per available processor.
+		 */
+		PLATFORM_POOL {
+			@Override
+			ExecutorService create() {
+				return Executors.newFixedThreadPool( Runtime.getRuntime().availableProcessors() );
+			}
+		};
+
+		abstract ExecutorService create();
+	}
+
+	@State(Scope.Benchmark)
+	public static class ExecutorState {
+
+		@Param({ "VIRTUAL", "PLATFORM_POOL" })
+		public ExecutorType executorType;
+
+		@Param({ "1000", "10000" })
+		public int concurrency;
+
+		public volatile Validator validator;
+
+		public volatile Object[] beans;
+
+		public volatile ExecutorService executor;
+
+		private ValidatorFactory factory;
+
+		@Setup
+		public void setup() {
+			factory = Validation.buildDefaultValidatorFactory();
+			validator = factory.getValidator();
+			beans = new Holder().beans.toArray();
+			executor = executorType.create();
+		}
+
+		@TearDown
+		public void teardown() throws InterruptedException {
+			executor.shutdown();
+			executor.awaitTermination( 1, TimeUnit.MINUTES );
+			factory.close();
+		}
+	}
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class ValidationCounters {
+
+		public long validations;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			validations = 0;
+		}
+	}
+
+	/**
+	 * Collects the latencies of the validations of an iteration, and publishes them to the {@link LatencyProfiler} at
+	 * the end of the iteration. A seeded reservoir sample bounds the memory of the long iterations.
+	 */
+	@State(Scope.Thread)
+	public static class LatencyRecorder {
+
+		private static final int RESERVOIR_SIZE = 1 << 20;
+
+		private static final long SEED = 42L;
+
+		private final long[] reservoir = new long[RESERVOIR_SIZE];
+
+		private final Random random = new Random( SEED );
+
+		private long count;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			count = 0;
+		}
+
+		@TearDown(Level.Iteration)
+		public void publish() {
+			long[] sorted = Arrays.copyOf( reservoir, (int) Math.min( count, RESERVOIR_SIZE ) );
+			Arrays.sort( sorted );
+			LatencyProfiler.publish( sorted );
+		}
+
+		void record(long[] waveLatencies) {
+			for ( long latency : waveLatencies ) {
+				if ( count < RESERVOIR_SIZE ) {
+					reservoir[(int) count] = latency;
+				}
+				else {
+					long slot = (long) ( random.nextDouble() * ( count + 1 ) );
+					if ( slot < RESERVOIR_SIZE ) {
+						reservoir[(int) slot] = latency;
+					}
+				}
+				count++;
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Wave {
+
+		public long[] latencies;
+
+		public int offset;
+
+		@Setup
+		public void setup(ExecutorState state) {
+			latencies = new long[state.concurrency];
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Fork(value = 1)
+	@Threads(1)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 10)
+	public void testConcurrentValidation(ExecutorState state, Wave wave, ValidationCounters counters, LatencyRecorder latencyRecorder)
+			throws InterruptedException {
+		final Validator validator = state.validator;
+		final Object[] beans = state.beans;
+		final long[] latencies = wave.latencies;
+		final CountDownLatch done = new CountDownLatch( latencies.length );
+
+		for ( int i = 0; i < latencies.length; i++ ) {
+			final int task = i;
+			final Object bean = beans[( wave.offset + i ) % beans.length];
+			final long submitted = System.nanoTime();
+			state.executor.execute( () -> {
+				try {
+					validator.validate( bean );
+					latencies[task] = System.nanoTime() - submitted;
+				}
+				finally {
+					done.countDown();
+				}
+			} );
+		}
+		done.await();
+
+		wave.offset = ( wave.offset + latencies.length ) % beans.length;
+		counters.validations += latencies.length;
+		latencyRecorder.record( latencies );
+	}
+}
@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.comparison;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A score of a JMH result file, normalized so that the scores of different files can be compared: the throughputs are
+ * converted to operations per second, the times to nanoseconds per operation, and the parameters are sorted.
+ * <p>
+ * Every result gives a primary score and, when run with the GC profiler, an allocation score (the bytes allocated per
+ * operation). The latency percentiles reported by the {@code LatencyProfiler} of the benchmarks are scores of their own;
+ * the other secondary results are ignored.
+ */
+final class BenchmarkScore {
+
+	/**
+	 * The kind of score.
+	 */
+	enum Metric {
+		/**
+		 * The primary score of the benchmark, in the mode it was run.
+		 */
+		SCORE,
+		/**
+		 * The bytes allocated per operation.
+		 */
+		ALLOCATION,
+		/**
+		 * The median latency of a single operation, in microseconds.
+		 */
+		LATENCY_P50( "latency.p50" ),
+		/**
+		 * The 99th percentile of the latency of a single operation, in microseconds.
+		 */
+		LATENCY_P99( "latency.p99" ),
+		/**
+		 * The 99.9th percentile of the latency of a single operation, in microseconds.
+		 */
+		LATENCY_P99_9( "latency.p99.9" );
+
+		private final String resultLabel;
+
+		Metric() {
+			this( null );
+		}
+
+		Metric(String resultLabel) {
+			this.resultLabel = resultLabel;
+		}
+
+		/**
+		 * @return the label of the secondary result giving this metric, {@code null} for the metrics without a label
+		 * of their own
+		 */
+		String getResultLabel() {
+			return resultLabel;
+		}
+
+		/**
+		 * @return the metric of the secondary result with the given label, {@code null} for the ignored results
+		 */
+		static Metric ofSecondaryResult(String label) {
+			if ( label.endsWith( ALLOCATION_RESULT_SUFFIX ) ) {
+				return ALLOCATION;
+			}
+			for ( Metric metric : values() ) {
+				if ( label.equals( metric.resultLabel ) ) {
+					return metric;
+				}
+			}
+			return null;
+		}
+	}
+
+	private static final String ALLOCATION_RESULT_SUFFIX = "gc.alloc.rate.norm";
+
+	private final String benchmark;
+
+	private final String mode;
+
+	private final String params;
+
+	private final Metric metric;
+
+	private final double score;
+
+	private final double error;
+
+	private final String unit;
+
+	private final double[] samples;
+
+	private final boolean higherIsBetter;
+
+	private BenchmarkScore(String benchmark, String mode, String params, Metric metric, double score, double error,
+			String unit, double[] samples, boolean higherIsBetter) {
+		this.benchmark = benchmark;
+		this.mode = mode;
+		this.params = params;
+		this.metric = metric;
+		this.score = score;
+		this.error = error;
+		this.unit = unit;
+		this.samples = samples;
+		this.higherIsBetter = higherIsBetter;
+	}
+
+	/**
+	 * @return the scores of a JMH result file in the JSON format
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if the file is not a JMH result file
+	 */
+	@SuppressWarnings("unchecked")
+	static List<BenchmarkScore> read(Path file) throws IOException {
+		Object document = JsonParser.parse( new String( Files.readAllBytes( file ), StandardCharsets.UTF_8 ) );
+		if ( !( document instanceof List ) ) {
+			throw new IllegalArgumentException( file + " is not a JMH result file in the JSON format" );
+		}
+		List<BenchmarkScore> scores = new ArrayList<>();
+		for ( Object element : (List<Object>) document ) {
+			Map<String, Object> result = (Map<String, Object>) element;
+			String benchmark = (String) result.get( "benchmark" );
+			String mode = (String) result.get( "mode" );
+			String params = params( (Map<String, Object>) result.get( "params" ), number( result.get( "threads" ) ) );
+			scores.add( score( benchmark, mode, params, Metric.SCORE, (Map<String, Object>) result.get( "primaryMetric" ), !"thrpt".equals( mode ) ) );
+
+			Map<String, Object> secondaryMetrics = (Map<String, Object>) result.get( "secondaryMetrics" );
+			if ( secondaryMetrics != null ) {
+				for ( Map.Entry<String, Object> secondary : secondaryMetrics.entrySet() ) {
+					Metric metric = Metric.ofSecondaryResult( secondary.getKey() );
+					if ( metric != null ) {
+						scores.add( score( benchmark, mode, params, metric, (Map<String, Object>) secondary.getValue(), true ) );
+					}
+				}
+			}
+		}
+		return scores;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static BenchmarkScore score(String benchmark, String mode, String params, Metric metric,
+			Map<String, Object> result, boolean lowerIsBetter) {
+		String unit = (String) result.get( "scoreUnit" );
+		double factor = unitFactor( unit );
+		List<Double> samples = new ArrayList<>();
+		Object rawData = result.get( "rawData" );
+		if ( rawData != null ) {
+			for ( Object fork : (List<Object>) rawData ) {
+				for ( Object iteration : (List<Object>) fork ) {
+					samples.add( number( iteration ) * factor );
+				}
+			}
+		}
+		return new BenchmarkScore( benchmark, mode, params, metric,
+				number( result.get( "score" ) ) * factor,
+				number( result.get( "scoreError" ) ) * factor,
+				normalizedUnit( unit ),
+				samples.stream().mapToDouble( Double::doubleValue ).toArray(),
+				!lowerIsBetter );
+	}
+
+	/**
+	 * @return the parameters sorted by name, and the thread count when more than one thread was used
+	 */
+	private static String params(Map<String, Object> params, double threads) {
+		Map<String, Object> sorted = params == null ? new TreeMap<>() : new TreeMap<>( params );
+		if ( threads > 1 ) {
+			sorted.put( "threads", (long) threads );
+		}
+		StringBuilder sb = new StringBuilder();
+		for ( Map.Entry<String, Object> param : sorted.entrySet() ) {
+			if ( sb.length() > 0 ) {
+				sb.append( ',' );
+			}
+			sb.append( param.getKey() ).append( '=' ).append( param.getValue() );
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return the factor converting a score of the given unit to operations per second or nanoseconds per operation
+	 */
+	private static double unitFactor(String unit) {
+		if ( unit.startsWith( "ops/" ) ) {
+			return 1.0 / seconds( unit.substring( "ops/".length() ) );
+		}
+		if ( unit.endsWith( "/op" ) && !unit.equals( "B/op" ) ) {
+			return seconds( unit.substring( 0, unit.length() - "/op".length() ) ) * 1e9;
+		}
+		return 1.0;
+	}
+
+	private static String normalizedUnit(String unit) {
+		if ( unit.startsWith( "ops/" ) ) {
+			return "ops/s";
+		}
+		if ( unit.endsWith( "/op" ) && !unit.equals( "B/op" ) ) {
+			return "ns/op";
+		}
+		return unit;
+	}
+
+	private static double seconds(String timeUnit) {
+		switch ( timeUnit ) {
+			case "ns":
+				return 1e-9;
+			case "us":
+				return 1e-6;
+			case "ms":
+				return 1e-3;
+			case "s":
+				return 1;
+			case "min":
+				return 60;
+			default:
+				throw new IllegalArgumentException( "Unsupported time unit: " + timeUnit );
+		}
+	}
+
+	/**
+	 * @return the value of a JSON number, JMH writing the undefined numbers as {@code "NaN"} strings
+	 */
+	private static double number(Object value) {
+		if ( value instanceof Number ) {
+			return ( (Number) value ).doubleValue();
+		}
+		if ( value instanceof String ) {
+			return Double.parseDouble( (String) value );
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * @return the key identifying this score among the scores of the same benchmark run
+	 */
+	String getKey() {
+		return String.format( Locale.ROOT, "%s|%s|%s|%s", benchmark, mode, params, metric );
+	}
+
+	String getBenchmark() {
+		return benchmark;
+	}
+
+	String getMode() {
+		return mode;
+	}
+
+	String getParams() {
+		return params;
+	}
+
+	Metric getMetric() {
+		return metric;
+	}
+
+	double getScore() {
+		return score;
+	}
+
+	/**
+	 * @return the half-width of the confidence interval of the score computed by JMH (99.9%), {@code NaN} when
+	 * there were too few iterations
+	 */
+	double getError() {
+		return error;
+	}
+
+	String getUnit() {
+		return unit;
+	}
+
+	/**
+	 * @return the score of every measurement iteration, empty for the sampled benchmarks
+	 */
+	double[] getSamples() {
+		return samples;
+	}
+
+	boolean isHigherBetter() {
+		return higherIsBetter;
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.comparison;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal JSON parser, enough to read the result files of JMH without any other dependency.
+ * <p>
+ * Objects are parsed as {@link Map}s keeping the order of their members, arrays as {@link List}s, numbers as
+ * {@link Double}s, and {@code true}, {@code false} and {@code null} as their Java counterparts.
+ */
+final class JsonParser {
+
+	private final String json;
+
+	private int position;
+
+	private JsonParser(String json) {
+		this.json = json;
+	}
+
+	/**
+	 * @return the value of the given JSON document
+	 * @throws IllegalArgumentException if the document is not valid JSON
+	 */
+	static Object parse(String json) {
+		JsonParser parser = new JsonParser( json );
+		Object value = parser.readValue();
+		parser.skipWhitespace();
+		if ( parser.position < json.length() ) {
+			throw parser.error( "Unexpected content after the document" );
+		}
+		return value;
+	}
+
+	private Object readValue() {
+		skipWhitespace();
+		if ( position >= json.length() ) {
+			throw error( "Unexpected end of the document" );
+		}
+		char c = json.charAt( position );
+		switch ( c ) {
+			case '{':
+				return readObject();
+			case '[':
+				return readArray();
+			case '"':
+				return readString();
+			case 't':
+				return readLiteral( "true", Boolean.TRUE );
+			case 'f':
+				return readLiteral( "false", Boolean.FALSE );
+			case 'n':
+				return readLiteral( "null", null );
+			default:
+				return readNumber();
+		}
+	}
+
+	private Map<String, Object> readObject() {
+		Map<String, Object> object = new LinkedHashMap<>();
+		position++;
+		skipWhitespace();
+		if ( peek() == '}' ) {
+			position++;
+			return object;
+		}
+		while ( true ) {
+			skipWhitespace();
+			if ( peek() != '"' ) {
+				throw error( "Expected a member name" );
+			}
+			String name = readString();
+			skipWhitespace();
+			expect( ':' );
+			object.put( name, readValue() );
+			skipWhitespace();
+			if ( peek() == ',' ) {
+				position++;
+			}
+			else {
+				expect( '}' );
+				return object;
+			}
+		}
+	}
+
+	private List<Object> readArray() {
+		List<Object> array = new ArrayList<>();
+		position++;
+		skipWhitespace();
+		if ( peek() == ']' ) {
+			position++;
+			return array;
+		}
+		while ( true ) {
+			array.add( readValue() );
+			skipWhitespace();
+			if ( peek() == ',' ) {
+				position++;
+			}
+			else {
+				expect( ']' );
+				return array;
+			}
+		}
+	}
+
+	private String readString() {
+		StringBuilder string = new StringBuilder();
+		position++;
+		while ( true ) {
+			if ( position >= json.length() ) {
+				throw error( "Unterminated string" );
+			}
+			char c = json.charAt( position++ );
+			if ( c == '"' ) {
+				return string.toString();
+			}
+			if ( c != '\\' ) {
+				string.append( c );
+				continue;
+			}
+			if ( position >= json.length() ) {
+				throw error( "Unterminated string" );
+			}
+			char escaped = json.charAt( position++ );
+			switch ( escaped ) {
+				case 'b':
+					string.append( '\b' );
+					break;
+				case 'f':
+					string.append( '\f' );
+					break;
+				case 'n':
+					string.append( '\n' );
+					break;
+				case 'r':
+					string.append( '\r' );
+					break;
+				case 't':
+					string.append( '\t' );
+					break;
+				case 'u':
+					if ( position + 4 > json.length() ) {
+						throw error( "Truncated unicode escape" );
+					}
+					string.append( (char) Integer.parseInt( json.substring( position, position + 4 ), 16 ) );
+					position += 4;
+					break;
+				default:
+					string.append( escaped );
+			}
+		}
+	}
+
+	private Object readLiteral(String literal, Object value) {
+		if ( !json.startsWith( literal, position ) ) {
+			throw error( "Unexpected token" );
+		}
+		position += literal.length();
+		return value;
+	}
+
+	private Double readNumber() {
+		int start = position;
+		while ( position < json.length() && "+-0123456789.eE".indexOf( json.charAt( position ) ) >= 0 ) {
+			position++;
+		}
+		if ( start == position ) {
+			throw error( "Unexpected character '" + json.charAt( position ) + "'" );
+		}
+		try {
+			return Double.valueOf( json.substring( start, position ) );
+		}
+		catch (NumberFormatException e) {
+			throw error( "Invalid number" );
+		}
+	}
+
+	private void skipWhitespace() {
+		while ( position < json.length() && Character.isWhitespace( json.charAt( position ) ) ) {
+			position++;
+		}
+	}
+
+	private char peek() {
+		if ( position >= json.length() ) {
+			throw error( "Unexpected end of the document" );
+		}
+		return json.charAt( position );
+	}
+
+	private void expect(char c) {
+		if ( peek() != c ) {
+			throw error( "Expected '" + c + "'" );
+		}
+		position++;
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException( message + " at offset " + position );
+	}
+}
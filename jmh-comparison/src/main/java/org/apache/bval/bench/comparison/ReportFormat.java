@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.comparison;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The formats of the comparison report: a row per benchmark, parameter set and metric, with the score of every result
+ * and the change of every candidate result relative to the baseline (the first result).
+ */
+enum ReportFormat {
+
+	MARKDOWN {
+		@Override
+		void write(PrintStream out, List<String> labels, List<ResultComparison.Row> rows) {
+			List<String> header = new ArrayList<>();
+			header.add( "Benchmark" );
+			header.add( "Params" );
+			header.add( "Mode" );
+			header.add( "Unit" );
+			header.add( labels.get( 0 ) );
+			for ( String label : labels.subList( 1, labels.size() ) ) {
+				header.add( label );
+				header.add( "Δ " + label );
+			}
+			writeLine( out, header );
+			List<String> separator = new ArrayList<>();
+			for ( int i = 0; i < header.size(); i++ ) {
+				separator.add( i < 4 ? "---" : "---:" );
+			}
+			writeLine( out, separator );
+
+			for ( ResultComparison.Row row : rows ) {
+				BenchmarkScore reference = row.getReference();
+				List<String> cells = new ArrayList<>();
+				String resultLabel = reference.getMetric().getResultLabel();
+				cells.add( shortBenchmarkName( reference.getBenchmark() ) + ( resultLabel == null ? "" : ":" + resultLabel ) );
+				cells.add( reference.getParams().isEmpty() ? "" : "`" + reference.getParams() + "`" );
+				cells.add( reference.getMode() );
+				cells.add( reference.getUnit() );
+				cells.add( score( row.getScore( 0 ) ) );
+				for ( int i = 1; i < labels.size(); i++ ) {
+					cells.add( score( row.getScore( i ) ) );
+					ScoreDelta delta = row.getDelta( i );
+					cells.add( delta == null ? "-" : String.format( Locale.ROOT, "%s [%s, %s]%s",
+							percent( delta.getChange() ), percent( delta.getLower() ), percent( delta.getUpper() ),
+							delta.getVerdict() == ScoreDelta.Verdict.UNCHANGED ? "" : " **" + delta.getVerdict().name().toLowerCase( Locale.ROOT ) + "**" ) );
+				}
+				writeLine( out, cells );
+			}
+		}
+
+		private void writeLine(PrintStream out, List<String> cells) {
+			out.println( "| " + String.join( " | ", cells ) + " |" );
+		}
+
+		private String score(BenchmarkScore score) {
+			if ( score == null ) {
+				return "-";
+			}
+			if ( Double.isNaN( score.getError() ) ) {
+				return String.format( Locale.ROOT, "%.3f", score.getScore() );
+			}
+			return String.format( Locale.ROOT, "%.3f ± %.3f", score.getScore(), score.getError() );
+		}
+
+		private String percent(double ratio) {
+			return String.format( Locale.ROOT, "%+.1f%%", ratio * 100 );
+		}
+	},
+
+	CSV {
+		@Override
+		void write(PrintStream out, List<String> labels, List<ResultComparison.Row> rows) {
+			List<String> header = new ArrayList<>();
+			header.add( "benchmark" );
+			header.add( "params" );
+			header.add( "mode" );
+			header.add( "metric" );
+			header.add( "unit" );
+			for ( int i = 0; i < labels.size(); i++ ) {
+				header.add( labels.get( i ) + ".score" );
+				header.add( labels.get( i ) + ".error" );
+				if ( i > 0 ) {
+					header.add( labels.get( i ) + ".change" );
+					header.add( labels.get( i ) + ".lower" );
+					header.add( labels.get( i ) + ".upper" );
+					header.add( labels.get( i ) + ".verdict" );
+				}
+			}
+			writeLine( out, header );
+
+			for ( ResultComparison.Row row : rows ) {
+				BenchmarkScore reference = row.getReference();
+				List<String> cells = new ArrayList<>();
+				cells.add( reference.getBenchmark() );
+				cells.add( reference.getParams() );
+				cells.add( reference.getMode() );
+				cells.add( reference.getMetric().name() );
+				cells.add( reference.getUnit() );
+				for ( int i = 0; i < labels.size(); i++ ) {
+					BenchmarkScore score = row.getScore( i );
+					cells.add( score == null ? "" : number( score.getScore() ) );
+					cells.add( score == null ? "" : number( score.getError() ) );
+					if ( i > 0 ) {
+						ScoreDelta delta = row.getDelta( i );
+						cells.add( delta == null ? "" : number( delta.getChange() ) );
+						cells.add( delta == null ? "" : number( delta.getLower() ) );
+						cells.add( delta == null ? "" : number( delta.getUpper() ) );
+						cells.add( delta == null ? "" : delta.getVerdict().name() );
+					}
+				}
+				writeLine( out, cells );
+			}
+		}
+
+		private void writeLine(PrintStream out, List<String> cells) {
+			StringBuilder line = new StringBuilder();
+			for ( String cell : cells ) {
+				if ( line.length() > 0 ) {
+					line.append( ',' );
+				}
+				if ( cell.indexOf( ',' ) >= 0 || cell.indexOf( '"' ) >= 0 ) {
+					line.append( '"' ).append( cell.replace( "\"", "\"\"" ) ).append( '"' );
+				}
+				else {
+					line.append( cell );
+				}
+			}
+			out.println( line );
+		}
+
+		private String number(double value) {
+			return Double.isNaN( value ) ? "" : String.format( Locale.ROOT, "%.6g", value );
+		}
+	};
+
+	/**
+	 * Writes the report.
+	 *
+	 * @param out the stream to write to
+	 * @param labels the labels of the results, the baseline first
+	 * @param rows the rows of the report
+	 */
+	abstract void write(PrintStream out, List<String> labels, List<ResultComparison.Row> rows);
+
+	private static String shortBenchmarkName(String benchmark) {
+		return benchmark.substring( benchmark.lastIndexOf( '.', benchmark.lastIndexOf( '.' ) - 1 ) + 1 );
+	}
+}
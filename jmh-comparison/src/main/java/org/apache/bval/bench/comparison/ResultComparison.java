@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.comparison;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares JMH result files, e.g. the runs of several providers or of several commits, and fails when a candidate
+ * result regresses compared to the baseline one.
+ * <p>
+ * The first result file is the baseline, and every other one is compared to it, score by score: the scores are
+ * matched by benchmark, mode and parameters, and their relative change is computed with its confidence interval (see
+ * {@link ScoreDelta}). A candidate regresses when a score significantly gets worse by more than the threshold: a
+ * lower throughput, a higher time per operation or a higher latency percentile beyond {@code --threshold}, or more
+ * bytes allocated per operation beyond {@code --alloc-threshold}. The process then exits with the status 1.
+ */
+public final class ResultComparison {
+
+	private static final String USAGE = "Usage: java -jar bv-benchmarks-comparison.jar [options] [<label>=]<baseline.json> [<label>=]<candidate.json>...\n"
+			+ "Options:\n"
+			+ "  --threshold <percent>        the tolerated drop of throughput (or rise of time or latency), default 5\n"
+			+ "  --alloc-threshold <percent>  the tolerated rise of the bytes allocated per operation, default 5\n"
+			+ "  --confidence <level>         the confidence level of the intervals, between 0 and 1, default 0.99\n"
+			+ "  --format <markdown|csv>      the format of the report, default markdown\n"
+			+ "  --output <file>              the file to write the report to, default the standard output";
+
+	private static final int REGRESSION_STATUS = 1;
+
+	private static final int USAGE_STATUS = 2;
+
+	/**
+	 * The scores of a benchmark, parameter set and metric in every result, and their changes relative to the baseline.
+	 */
+	static final class Row {
+
+		private final BenchmarkScore[] scores;
+
+		private final ScoreDelta[] deltas;
+
+		private Row(int results) {
+			this.scores = new BenchmarkScore[results];
+			this.deltas = new ScoreDelta[results];
+		}
+
+		/**
+		 * @return the score of the given result, {@code null} if the result does not have it
+		 */
+		BenchmarkScore getScore(int result) {
+			return scores[result];
+		}
+
+		/**
+		 * @return the change of the score of the given candidate result, {@code null} if the baseline or the
+		 * candidate does not have it
+		 */
+		ScoreDelta getDelta(int result) {
+			return deltas[result];
+		}
+
+		/**
+		 * @return the first available score, describing the row
+		 */
+		BenchmarkScore getReference() {
+			for ( BenchmarkScore score : scores ) {
+				if ( score != null ) {
+					return score;
+				}
+			}
+			throw new IllegalStateException( "Empty row" );
+		}
+	}
+
+	private ResultComparison() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		double threshold = 0.05;
+		double allocationThreshold = 0.05;
+		double confidence = 0.99;
+		ReportFormat format = ReportFormat.MARKDOWN;
+		String output = null;
+		List<String> labels = new ArrayList<>();
+		List<Path> files = new ArrayList<>();
+		try {
+			for ( int i = 0; i < args.length; i++ ) {
+				switch ( args[i] ) {
+					case "--threshold":
+						threshold = Double.parseDouble( args[++i] ) / 100;
+						break;
+					case "--alloc-threshold":
+						allocationThreshold = Double.parseDouble( args[++i] ) / 100;
+						break;
+					case "--confidence":
+						confidence = Double.parseDouble( args[++i] );
+						break;
+					case "--format":
+						format = ReportFormat.valueOf( args[++i].toUpperCase( Locale.ROOT ) );
+						break;
+					case "--output":
+						output = args[++i];
+						break;
+					default:
+						if ( args[i].startsWith( "--" ) ) {
+							throw new IllegalArgumentException( "Unknown option " + args[i] );
+						}
+						int separator = args[i].indexOf( '=' );
+						Path file = Paths.get( separator < 0 ? args[i] : args[i].substring( separator + 1 ) );
+						labels.add( separator < 0 ? file.getFileName().toString().replaceFirst( "\\.json$", "" ) : args[i].substring( 0, separator ) );
+						files.add( file );
+				}
+			}
+			if ( files.size() < 2 ) {
+				throw new IllegalArgumentException( "At least two result files are required" );
+			}
+			if ( confidence <= 0 || confidence >= 1 ) {
+				throw new IllegalArgumentException( "The confidence level must be between 0 and 1" );
+			}
+		}
+		catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+			System.err.println( e instanceof ArrayIndexOutOfBoundsException ? "Missing option value" : e.getMessage() );
+			System.err.println( USAGE );
+			System.exit( USAGE_STATUS );
+			return;
+		}
+
+		List<Row> rows = compare( files, confidence, threshold, allocationThreshold );
+		// The reports are written in UTF-8 whatever the platform encoding
+		try ( PrintStream out = new PrintStream( output == null ? new FileOutputStream( FileDescriptor.out ) : new FileOutputStream( output ),
+				false, StandardCharsets.UTF_8.name() ) ) {
+			format.write( out, labels, rows );
+		}
+
+		int regressions = 0;
+		for ( Row row : rows ) {
+			for ( int i = 1; i < files.size(); i++ ) {
+				ScoreDelta delta = row.getDelta( i );
+				if ( delta != null && delta.getVerdict() == ScoreDelta.Verdict.REGRESSION ) {
+					BenchmarkScore score = row.getScore( i );
+					String resultLabel = score.getMetric().getResultLabel();
+					System.err.println( String.format( Locale.ROOT, "Regression in %s: %s%s %s %s %+.1f%%",
+							labels.get( i ), score.getBenchmark(), resultLabel == null ? "" : ":" + resultLabel,
+							score.getParams(), score.getUnit(), delta.getChange() * 100 ) );
+					regressions++;
+				}
+			}
+		}
+		if ( regressions > 0 ) {
+			System.err.println( regressions + " regression(s) compared to " + labels.get( 0 ) );
+			System.exit( REGRESSION_STATUS );
+		}
+	}
+
+	/**
+	 * @return the rows of the comparison, in the order of the baseline results, followed by the scores missing from
+	 * the baseline
+	 */
+	private static List<Row> compare(List<Path> files, double confidence, double threshold, double allocationThreshold) throws IOException {
+		Map<String, Row> rows = new LinkedHashMap<>();
+		for ( int i = 0; i < files.size(); i++ ) {
+			for ( BenchmarkScore score : BenchmarkScore.read( files.get( i ) ) ) {
+				Row row = rows.computeIfAbsent( score.getKey(), key -> new Row( files.size() ) );
+				row.scores[i] = score;
+			}
+		}
+		for ( Row row : rows.values() ) {
+			BenchmarkScore baseline = row.scores[0];
+			if ( baseline == null ) {
+				continue;
+			}
+			double rowThreshold = baseline.getMetric() == BenchmarkScore.Metric.ALLOCATION ? allocationThreshold : threshold;
+			for ( int i = 1; i < files.size(); i++ ) {
+				if ( row.scores[i] != null ) {
+					row.deltas[i] = ScoreDelta.compare( baseline, row.scores[i], confidence, rowThreshold );
+				}
+			}
+		}
+		return new ArrayList<>( rows.values() );
+	}
+}
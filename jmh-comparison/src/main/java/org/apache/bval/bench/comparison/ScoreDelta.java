@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.bval.bench.comparison;
+
+import org.apache.commons.math3.distribution.TDistribution;
+import org.apache.commons.math3.stat.StatUtils;
+
+/**
+ * The relative change of a score between a baseline and a candidate result, with its confidence interval.
+ * <p>
+ * When both results have at least two measurement iterations, the interval is computed with the Welch's t-test at the
+ * requested confidence level. Otherwise, it falls back to the errors computed by JMH (at 99.9%), and to the sole
+ * change when JMH could not compute them either (a single iteration).
+ */
+final class ScoreDelta {
+
+	enum Verdict {
+		/**
+		 * The score got significantly worse by more than the threshold.
+		 */
+		REGRESSION,
+		/**
+		 * The score got significantly better by more than the threshold.
+		 */
+		IMPROVEMENT,
+		/**
+		 * The change is within the threshold or not significant.
+		 */
+		UNCHANGED
+	}
+
+	private final double change;
+
+	private final double lower;
+
+	private final double upper;
+
+	private final Verdict verdict;
+
+	private ScoreDelta(double change, double lower, double upper, Verdict verdict) {
+		this.change = change;
+		this.lower = lower;
+		this.upper = upper;
+		this.verdict = verdict;
+	}
+
+	/**
+	 * @param baseline the baseline score
+	 * @param candidate the score of the same benchmark and parameters in the candidate result
+	 * @param confidence the confidence level of the interval, between 0 and 1
+	 * @param threshold the relative change, between 0 and 1, beyond which a significant change is reported
+	 * @return the change of the candidate score relative to the baseline one
+	 */
+	static ScoreDelta compare(BenchmarkScore baseline, BenchmarkScore candidate, double confidence, double threshold) {
+		double base = baseline.getScore();
+		double difference = candidate.getScore() - base;
+		double halfWidth = halfWidth( baseline, candidate, confidence );
+
+		double change = relative( difference, base );
+		double lower = relative( difference - halfWidth, base );
+		double upper = relative( difference + halfWidth, base );
+
+		boolean significant = lower > 0 || upper < 0;
+		Verdict verdict = Verdict.UNCHANGED;
+		if ( significant && Math.abs( change ) > threshold ) {
+			boolean worse = baseline.isHigherBetter() ? change < 0 : change > 0;
+			verdict = worse ? Verdict.REGRESSION : Verdict.IMPROVEMENT;
+		}
+		return new ScoreDelta( change, lower, upper, verdict );
+	}
+
+	/**
+	 * @return the given difference relative to the baseline score, infinite when the baseline score is 0
+	 */
+	private static double relative(double difference, double base) {
+		if ( base == 0 ) {
+			return difference == 0 ? 0 : Math.copySign( Double.POSITIVE_INFINITY, difference );
+		}
+		return difference / Math.abs( base );
+	}
+
+	/**
+	 * @return the half-width of the confidence interval of the difference of the scores
+	 */
+	private static double halfWidth(BenchmarkScore baseline, BenchmarkScore candidate, double confidence) {
+		double[] baseSamples = baseline.getSamples();
+		double[] candidateSamples = candidate.getSamples();
+		if ( baseSamples.length >= 2 && candidateSamples.length >= 2 ) {
+			double baseTerm = StatUtils.variance( baseSamples ) / baseSamples.length;
+			double candidateTerm = StatUtils.variance( candidateSamples ) / candidateSamples.length;
+			double standardError = Math.sqrt( baseTerm + candidateTerm );
+			if ( standardError == 0 ) {
+				return 0;
+			}
+			// Welch-Satterthwaite degrees of freedom
+			double degreesOfFreedom = ( baseTerm + candidateTerm ) * ( baseTerm + candidateTerm )
+					/ ( baseTerm * baseTerm / ( baseSamples.length - 1 ) + candidateTerm * candidateTerm / ( candidateSamples.length - 1 ) );
+			double t = new TDistribution( degreesOfFreedom ).inverseCumulativeProbability( 1 - ( 1 - confidence ) / 2 );
+			return t * standardError;
+		}
+		if ( !Double.isNaN( baseline.getError() ) && !Double.isNaN( candidate.getError() ) ) {
+			return Math.sqrt( baseline.getError() * baseline.getError() + candidate.getError() * candidate.getError() );
+		}
+		return 0;
+	}
+
+	/**
+	 * @return the change of the score relative to the baseline, e.g. {@code -0.1} for a score 10% lower
+	 */
+	double getChange() {
+		return change;
+	}
+
+	/**
+	 * @return the lower bound of the confidence interval of the relative change
+	 */
+	double getLower() {
+		return lower;
+	}
+
+	/**
+	 * @return the upper bound of the confidence interval of the relative change
+	 */
+	double getUpper() {
+		return upper;
+	}
+
+	Verdict getVerdict() {
+		return verdict;
+	}
+}